@@ -2,8 +2,10 @@ package com.example.attendxbackendv2;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AttendxBackendV2Application {
 
     public static void main(String[] args) {
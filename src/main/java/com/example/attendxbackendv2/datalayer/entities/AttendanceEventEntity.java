@@ -0,0 +1,57 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One change of a student's attendance in a session. The log is append-only, the attendance bitmap of the
+ * session is a snapshot of it up to SessionEntity.snapshotEventId and the current state is that snapshot
+ * with the later events replayed in order. Rows are written with plain JDBC inserts, see AttendanceJdbcRepository.
+ */
+@Entity
+@Table(name = "attendance_event", indexes = {
+        @Index(name = "idx_attendance_event_session", columnList = "session_id, event_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_event_request", columnNames = {"session_id", "ordinal", "request_id"})
+})
+@Data
+@NoArgsConstructor
+public class AttendanceEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    /**
+     * Roster ordinal of the student, see CourseRosterEntity
+     */
+    @Column(name = "ordinal", nullable = false)
+    private int ordinal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private AttendanceEventType type;
+
+    /**
+     * User id of the lecturer or editor that made the change, null for the student's own check-in
+     */
+    @Column(name = "recorded_by")
+    private Long recordedBy;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    /**
+     * Idempotency key the client sent with the check-in, a retried check-in with the same key isn't appended again.
+     * Null for events without one, which never collide
+     */
+    @Column(name = "request_id", length = 64)
+    private String requestId;
+}
@@ -0,0 +1,36 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+/**
+ * Kinds of entries in the attendance event log
+ */
+public enum AttendanceEventType {
+    /**
+     * The student checked in
+     */
+    CHECK_IN(true),
+    /**
+     * A lecturer marked the student as present
+     */
+    CORRECTION(true),
+    /**
+     * A lecturer marked the student as absent
+     */
+    REVOKE(false);
+
+    private final boolean present;
+
+    AttendanceEventType(boolean present) {
+        this.present = present;
+    }
+
+    /**
+     * @return the attendance of the student after the event
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    public static AttendanceEventType ofMark(boolean present) {
+        return present ? CORRECTION : REVOKE;
+    }
+}
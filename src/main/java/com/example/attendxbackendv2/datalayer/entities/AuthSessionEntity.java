@@ -0,0 +1,51 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A login of a user on one device. A user can have several active sessions at the same time.
+ * Lookups go through the unique token index, expired rows are removed by the AuthSessionSweeper.
+ */
+@Entity
+@Table(name = "auth_session", indexes = {
+        @Index(name = "idx_auth_session_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_auth_session_user_id", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class AuthSessionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "auth_session_id")
+    private Long authSessionId;
+
+    @Column(name = "token", nullable = false, unique = true)
+    private UUID token;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private UserBaseEntity user;
+
+    @Column(name = "issued_at", nullable = false)
+    private Instant issuedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public AuthSessionEntity(UUID token, UserBaseEntity user, Instant issuedAt, Instant expiresAt) {
+        this.token = token;
+        this.user = user;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -42,10 +42,31 @@ public class CourseEntity {
     @Column(name = "end_date", nullable = false)
     private LocalDate endDate;
 
+    /**
+     * Number of seats, null for a course without a limit
+     */
+    @Column(name = "capacity")
+    private Integer capacity;
+
+    /**
+     * Number of enrolled students, kept by SeatAllocator with conditional updates and never written by the entity
+     */
+    @Column(name = "seats_taken", nullable = false, updatable = false)
+    private int seatsTaken;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference DepartmentEntity department;
 
+    /**
+     * The join table keeps the default names, AttendanceJdbcRepository and EnrollmentJdbcRepository read it in native SQL.
+     * A student is enrolled at most once, a second enrollment fails on the unique key.
+     */
     @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "course_entity_enrolled_students",
+            joinColumns = @JoinColumn(name = "course_entity_course_id"),
+            inverseJoinColumns = @JoinColumn(name = "enrolled_students_user_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_course_enrollment",
+                    columnNames = {"course_entity_course_id", "enrolled_students_user_id"}))
     private List<StudentEntity> enrolledStudents;
 
     @ManyToOne(fetch = FetchType.LAZY)
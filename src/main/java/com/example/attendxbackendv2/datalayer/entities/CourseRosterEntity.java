@@ -0,0 +1,48 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Stable position of a student within a course, used as the bit index of the student in the
+ * session attendance bitmaps. An ordinal is assigned once and never reused, so the bitmaps of
+ * past sessions stay valid when students leave or rejoin the course.
+ */
+@Entity
+@Table(name = "course_roster", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_course_roster_student", columnNames = {"course_id", "student_user_id"}),
+        @UniqueConstraint(name = "uk_course_roster_ordinal", columnNames = {"course_id", "ordinal"})
+})
+@Data
+@NoArgsConstructor
+public class CourseRosterEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "course_roster_id")
+    private Long courseRosterId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CourseEntity course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private StudentEntity student;
+
+    @Column(name = "ordinal", nullable = false)
+    private int ordinal;
+
+    public CourseRosterEntity(CourseEntity course, StudentEntity student, int ordinal) {
+        this.course = course;
+        this.student = student;
+        this.ordinal = ordinal;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * A student waiting for a seat in a full course. Students are promoted in the order of their waitlist id
+ * as seats free up, see SeatAllocator. The entity only declares the table, it is read and written through
+ * EnrollmentJdbcRepository.
+ */
+@Entity
+@Table(name = "course_waitlist", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_course_waitlist_student", columnNames = {"course_id", "student_user_id"})
+}, indexes = {
+        @Index(name = "idx_course_waitlist_order", columnList = "course_id, waitlist_id")
+})
+@Data
+@NoArgsConstructor
+public class CourseWaitlistEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "waitlist_id")
+    private Long waitlistId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CourseEntity course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private StudentEntity student;
+
+    @Column(name = "waitlisted_at", nullable = false)
+    private Instant waitlistedAt;
+}
@@ -0,0 +1,62 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A check-in that came from a source which checked in more students to the session than the proxy detection
+ * threshold allows within its window. Written in batches off the check-in path, see ProxyCheckInDetector.
+ */
+@Entity
+@Table(name = "proxy_check_in_flag", indexes = {
+        @Index(name = "idx_proxy_check_in_flag_session", columnList = "session_id, flag_id")
+})
+@Data
+@NoArgsConstructor
+public class ProxyCheckInFlagEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "flag_id")
+    private Long flagId;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    /**
+     * Client address the check-in came from
+     */
+    @Column(name = "source", nullable = false, length = 64)
+    private String source;
+
+    /**
+     * Distinct students checked in from the source within the window, this one included
+     */
+    @Column(name = "students_from_source", nullable = false)
+    private int studentsFromSource;
+
+    /**
+     * True if the check-in was rejected, false if it was only flagged
+     */
+    @Column(name = "rejected", nullable = false)
+    private boolean rejected;
+
+    @Column(name = "flagged_at", nullable = false)
+    private Instant flaggedAt;
+
+    public ProxyCheckInFlagEntity(Long sessionId, String studentId, String source, int studentsFromSource,
+                                  boolean rejected, Instant flaggedAt) {
+        this.sessionId = sessionId;
+        this.studentId = studentId;
+        this.source = source;
+        this.studentsFromSource = studentsFromSource;
+        this.rejected = rejected;
+        this.flaggedAt = flaggedAt;
+    }
+}
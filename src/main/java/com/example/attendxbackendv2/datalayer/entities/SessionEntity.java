@@ -6,10 +6,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Entity
 @Data
@@ -17,6 +16,16 @@ import java.util.Map;
 @EqualsAndHashCode
 public class SessionEntity {
 
+    /**
+     * Room for 65536 roster ordinals per course
+     */
+    public static final int MAX_BITMAP_BYTES = 8192;
+
+    /**
+     * Four bytes for each of the ordinals of a full bitmap
+     */
+    public static final int MAX_ARRIVAL_BYTES = MAX_BITMAP_BYTES * 8 * 4;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long sessionId;
@@ -28,26 +37,83 @@ public class SessionEntity {
     @JsonBackReference
     private CourseEntity course;
 
-    @ElementCollection
-    private Map<StudentEntity, Boolean> attendance;
+    /**
+     * Students expected in the session, indexed by their CourseRosterEntity ordinal.
+     * Null until the session is started, see AttendanceBitmap for the layout
+     */
+    @Column(name = "roster_bitmap", length = MAX_BITMAP_BYTES)
+    private byte[] rosterBitmap;
+
+    /**
+     * Snapshot of the attendance event log up to snapshotEventId, same indexing and length as rosterBitmap.
+     * See AttendanceEventEntity for how the current attendance is derived from it
+     */
+    @Column(name = "attendance_bitmap", length = MAX_BITMAP_BYTES)
+    private byte[] attendanceBitmap;
+
+    /**
+     * Check-in times in the same snapshot as seconds after openedAt, four bytes per ordinal of rosterBitmap.
+     * Null until a check-in time is folded in, see ArrivalTimes for the layout
+     */
+    @Column(name = "arrival_offsets", length = MAX_ARRIVAL_BYTES)
+    private byte[] arrivalOffsets;
+
+    /**
+     * Id of the last attendance event in attendanceBitmap, null if no event was folded in yet
+     */
+    @Column(name = "snapshot_event_id")
+    private Long snapshotEventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private SessionStatus status = SessionStatus.SCHEDULED;
+
+    @Column(name = "opened_at")
+    private Instant openedAt;
+
+    /**
+     * End of the check-in window while the session is open, the time it was closed afterwards
+     */
+    @Column(name = "closes_at")
+    private Instant closesAt;
 
 
     public SessionEntity(LocalDate sessionDate, CourseEntity course){
         this.sessionDate = sessionDate;
         this.course = course;
-        attendance = new HashMap<>();
     }
 
 
     public SessionEntity() {
         this.sessionDate = null;
         this.course = null;
-        attendance = new HashMap<>();
     }
 
-    public void startSession(){
-        List<StudentEntity> registeredStudents =  course.getEnrolledStudents();
-        attendance = new HashMap<>();
-        registeredStudents.forEach(studentEntity -> this.attendance.put(studentEntity, false));
+    /**
+     * Opens the session for check-in with the given roster and nobody checked in.
+     * @param rosterBitmap persisted form of the expected students, padded to the course's roster length
+     * @param checkInWindow how long students can check in from now on
+     * @param lastEventId id of the session's last attendance event, events of an earlier start aren't replayed
+     */
+    public void startSession(byte[] rosterBitmap, Instant openedAt, Duration checkInWindow, Long lastEventId){
+        this.rosterBitmap = rosterBitmap;
+        this.attendanceBitmap = new byte[rosterBitmap.length];
+        this.arrivalOffsets = null;
+        this.snapshotEventId = lastEventId;
+        this.status = SessionStatus.OPEN;
+        this.openedAt = openedAt;
+        this.closesAt = openedAt.plus(checkInWindow);
+    }
+
+    public SessionStatus getStatus(){
+        return SessionStatus.resolve(status, isStarted());
+    }
+
+    public boolean isStarted(){
+        return rosterBitmap != null;
+    }
+
+    public boolean isClosed(){
+        return status == SessionStatus.CLOSED;
     }
 }
@@ -0,0 +1,22 @@
+package com.example.attendxbackendv2.datalayer.entities;
+
+/**
+ * Lifecycle of a session: created as SCHEDULED, OPEN for check-in once started,
+ * CLOSED when its check-in window ends or it is closed by hand.
+ */
+public enum SessionStatus {
+    SCHEDULED,
+    OPEN,
+    CLOSED;
+
+    /**
+     * Status of sessions stored before the status column existed, started sessions count as open.
+     * @param stored persisted status, may be null
+     */
+    public static SessionStatus resolve(SessionStatus stored, boolean started) {
+        if (stored != null) {
+            return stored;
+        }
+        return started ? OPEN : SCHEDULED;
+    }
+}
@@ -6,8 +6,6 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
-import java.util.UUID;
-
 /**
  * This class is used to map the fields that all the entities that has
  */
@@ -26,9 +24,6 @@ public class UserBaseEntity {
     @Column(name = "user_id")
     private Long userId;
 
-    @Column(name = "session_token")
-    private UUID sessionToken;
-
     @Column(name = "user_type", insertable = false, updatable = false)
     private String userType;
 
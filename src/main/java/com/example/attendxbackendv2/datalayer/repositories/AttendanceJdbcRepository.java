@@ -0,0 +1,620 @@
+package com.example.attendxbackendv2.datalayer.repositories;
+
+import com.example.attendxbackendv2.datalayer.entities.AttendanceEventType;
+import com.example.attendxbackendv2.datalayer.entities.SessionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Set based access to the roster ordinals, the session attendance bitmaps and the attendance event log
+ * for the attendance paths that must not hydrate SessionEntity or the course's students.
+ */
+@Repository
+public class AttendanceJdbcRepository {
+
+    /**
+     * Keeps IN lists to a size MySQL plans and sends efficiently
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * @param lecturerId user id of the course's lecturer, null if the course has none
+     */
+    public record SessionCourse(Long courseId, Long lecturerId) {
+    }
+
+    /**
+     * Bitmaps of one session as stored, see AttendanceBitmap
+     * @param attendance snapshot of the event log up to snapshotEventId
+     * @param arrivals check-in times in the same snapshot, see ArrivalTimes
+     * @param openedAt null for sessions that were never started or started before it was recorded
+     * @param snapshotEventId 0 if no event was folded in yet
+     */
+    public record SessionBitmaps(Long sessionId, LocalDate sessionDate, byte[] roster, byte[] attendance,
+                                 byte[] arrivals, Instant openedAt, SessionStatus status, long snapshotEventId) {
+    }
+
+    /**
+     * An attendance event to append, see AttendanceEventEntity
+     */
+    public record AttendanceEvent(Long sessionId, int ordinal, AttendanceEventType type, Long recordedBy,
+                                  Instant recordedAt, String requestId) {
+    }
+
+    /**
+     * An appended attendance event as needed to replay it onto a snapshot
+     */
+    public record LoggedEvent(long eventId, Long sessionId, int ordinal, AttendanceEventType type, Instant recordedAt) {
+    }
+
+    /**
+     * An appended attendance event with the student number of its ordinal
+     */
+    public record AuditedEvent(long eventId, String studentId, AttendanceEventType type, Long recordedBy,
+                               Instant recordedAt) {
+    }
+
+    /**
+     * The last attendance event of a student in a session
+     */
+    public record LatestEvent(int ordinal, AttendanceEventType type, Instant recordedAt) {
+    }
+
+    /**
+     * A session that is open for check-in
+     * @param closesAt end of the check-in window, null for sessions started before sessions had one
+     */
+    public record OpenSession(Long sessionId, LocalDate sessionDate, Instant closesAt) {
+    }
+
+    /**
+     * A student of a course's roster
+     */
+    public record RosterStudent(int ordinal, String studentId, String firstName, String lastName) {
+    }
+
+    private static final String FIND_ROSTER_ORDINALS =
+            "SELECT s.student_id, r.ordinal FROM session_entity se " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "WHERE se.session_id = :sessionId AND s.student_id IN (:studentIds) " +
+            "AND (ASCII(SUBSTRING(se.roster_bitmap, r.ordinal DIV 8 + 1, 1)) & (1 << (r.ordinal % 8))) <> 0";
+
+    private static final String LOCK_COURSE =
+            "SELECT course_id FROM course_entity WHERE course_id = :courseId FOR UPDATE";
+
+    private static final String FIND_NEXT_ORDINAL =
+            "SELECT COALESCE(MAX(ordinal) + 1, 0) FROM course_roster WHERE course_id = :courseId";
+
+    private static final String ASSIGN_ROSTER_ORDINALS =
+            "INSERT INTO course_roster (course_id, student_user_id, ordinal) " +
+            "SELECT e.course_entity_course_id, e.enrolled_students_user_id, " +
+            ":nextOrdinal + ROW_NUMBER() OVER (ORDER BY e.enrolled_students_user_id) - 1 " +
+            "FROM course_entity_enrolled_students e " +
+            "LEFT JOIN course_roster r ON r.course_id = e.course_entity_course_id " +
+            "AND r.student_user_id = e.enrolled_students_user_id " +
+            "WHERE e.course_entity_course_id = :courseId AND r.course_roster_id IS NULL " +
+            "ORDER BY e.enrolled_students_user_id LIMIT :limit";
+
+    private static final String FIND_ENROLLED_ORDINALS =
+            "SELECT r.ordinal, s.student_id FROM course_entity_enrolled_students e " +
+            "JOIN course_roster r ON r.course_id = e.course_entity_course_id " +
+            "AND r.student_user_id = e.enrolled_students_user_id " +
+            "JOIN student_entity s ON s.user_id = e.enrolled_students_user_id " +
+            "WHERE e.course_entity_course_id = :courseId AND r.ordinal > :afterOrdinal " +
+            "ORDER BY r.ordinal LIMIT :limit";
+
+    private static final String LOCK_SESSION_BITMAPS =
+            "SELECT session_id, start_date, roster_bitmap, attendance_bitmap, arrival_offsets, opened_at, status, " +
+            "snapshot_event_id FROM session_entity " +
+            "WHERE session_id = :sessionId FOR UPDATE";
+
+    private static final String LOCK_SESSION_FOR_EVENTS =
+            "SELECT session_id FROM session_entity WHERE session_id = :sessionId FOR SHARE";
+
+    private static final String FIND_SNAPSHOTTED_EVENT_ID =
+            "SELECT COALESCE(MAX(snapshot_event_id), 0) FROM session_entity";
+
+    private static final String FIND_SESSION_BITMAPS =
+            "SELECT session_id, start_date, roster_bitmap, attendance_bitmap, arrival_offsets, opened_at, status, " +
+            "snapshot_event_id FROM session_entity " +
+            "WHERE session_id = :sessionId";
+
+    private static final String FIND_OPEN_SESSIONS =
+            "SELECT session_id, start_date, closes_at FROM session_entity " +
+            "WHERE roster_bitmap IS NOT NULL AND (status = 'OPEN' OR status IS NULL)";
+
+    private static final String FIND_SESSION_ROSTER =
+            "SELECT s.student_id, r.ordinal FROM session_entity se " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "WHERE se.session_id = :sessionId " +
+            "AND (ASCII(SUBSTRING(se.roster_bitmap, r.ordinal DIV 8 + 1, 1)) & (1 << (r.ordinal % 8))) <> 0";
+
+    private static final String UPDATE_SNAPSHOT =
+            "UPDATE session_entity SET attendance_bitmap = :attendance, arrival_offsets = :arrivals, " +
+            "snapshot_event_id = :snapshotEventId " +
+            "WHERE session_id = :sessionId";
+
+    private static final String APPEND_EVENT =
+            "INSERT INTO attendance_event (session_id, ordinal, type, recorded_by, recorded_at, request_id) " +
+            "VALUES (:sessionId, :ordinal, :type, :recordedBy, :recordedAt, :requestId) " +
+            "ON DUPLICATE KEY UPDATE event_id = event_id";
+
+    private static final String FIND_LAST_EVENT_ID =
+            "SELECT COALESCE(MAX(event_id), 0) FROM attendance_event WHERE session_id = :sessionId";
+
+    private static final String FIND_SESSION_EVENTS_AFTER =
+            "SELECT event_id, session_id, ordinal, type, recorded_at FROM attendance_event " +
+            "WHERE session_id = :sessionId AND event_id > :eventId ORDER BY event_id";
+
+    private static final String FIND_COURSE_EVENTS_AFTER =
+            "SELECT e.event_id, e.session_id, e.ordinal, e.type, e.recorded_at FROM attendance_event e " +
+            "JOIN session_entity se ON se.session_id = e.session_id " +
+            "WHERE se.course_course_id = :courseId AND e.event_id > :eventId ORDER BY e.event_id";
+
+    private static final String FIND_SESSIONS_WITH_EVENTS_AFTER =
+            "SELECT session_id, MAX(event_id) FROM attendance_event WHERE event_id > :eventId GROUP BY session_id";
+
+    private static final String FIND_LATEST_EVENTS =
+            "SELECT e.ordinal, e.type, e.recorded_at FROM attendance_event e " +
+            "JOIN (SELECT MAX(event_id) AS event_id FROM attendance_event " +
+            "WHERE session_id = :sessionId AND ordinal IN (:ordinals) GROUP BY ordinal) latest " +
+            "ON latest.event_id = e.event_id";
+
+    private static final String FIND_SESSION_EVENTS =
+            "SELECT e.event_id, s.student_id, e.type, e.recorded_by, e.recorded_at FROM attendance_event e " +
+            "JOIN session_entity se ON se.session_id = e.session_id " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id AND r.ordinal = e.ordinal " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "WHERE e.session_id = :sessionId ORDER BY e.event_id";
+
+    private static final String CLOSE_SESSION =
+            "UPDATE session_entity SET attendance_bitmap = COALESCE(:attendance, attendance_bitmap), " +
+            "arrival_offsets = COALESCE(:arrivals, arrival_offsets), " +
+            "snapshot_event_id = :snapshotEventId, status = 'CLOSED', closes_at = :closedAt WHERE session_id = :sessionId";
+
+    private static final String FIND_COURSE_SESSION_BITMAPS =
+            "SELECT session_id, start_date, roster_bitmap, attendance_bitmap, arrival_offsets, opened_at, status, " +
+            "snapshot_event_id FROM session_entity " +
+            "WHERE course_course_id = :courseId AND roster_bitmap IS NOT NULL ORDER BY start_date, session_id";
+
+    private static final String FIND_ROSTER_STUDENTS =
+            "SELECT r.ordinal, s.student_id, u.first_name, u.last_name FROM course_roster r " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "JOIN user_base_entity u ON u.user_id = r.student_user_id " +
+            "WHERE r.course_id = :courseId ORDER BY r.ordinal";
+
+    private static final String STREAM_SESSION_ATTENDEES =
+            "SELECT r.ordinal, s.student_id, u.first_name, u.last_name FROM session_entity se " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "JOIN user_base_entity u ON u.user_id = r.student_user_id " +
+            "WHERE se.session_id = ? " +
+            "AND (ASCII(SUBSTRING(se.roster_bitmap, r.ordinal DIV 8 + 1, 1)) & (1 << (r.ordinal % 8))) <> 0 " +
+            "ORDER BY r.ordinal";
+
+    private static final String HAS_LEGACY_ATTENDANCE =
+            "SELECT COUNT(*) FROM information_schema.tables " +
+            "WHERE table_schema = DATABASE() AND table_name = 'session_entity_attendance'";
+
+    private static final String FIND_LEGACY_SESSION_IDS =
+            "SELECT DISTINCT session_entity_session_id FROM session_entity_attendance " +
+            "WHERE session_entity_session_id > :afterSessionId ORDER BY session_entity_session_id LIMIT :limit";
+
+    private static final String FIND_SESSION_COURSE =
+            "SELECT c.course_id, c.lecturer_user_id FROM session_entity s " +
+            "JOIN course_entity c ON c.course_id = s.course_course_id WHERE s.session_id = :sessionId";
+
+    private static final String ASSIGN_LEGACY_ROSTER_ORDINALS =
+            "INSERT INTO course_roster (course_id, student_user_id, ordinal) " +
+            "SELECT :courseId, a.attendance_key, :nextOrdinal + ROW_NUMBER() OVER (ORDER BY a.attendance_key) - 1 " +
+            "FROM session_entity_attendance a " +
+            "LEFT JOIN course_roster r ON r.course_id = :courseId AND r.student_user_id = a.attendance_key " +
+            "WHERE a.session_entity_session_id = :sessionId AND r.course_roster_id IS NULL " +
+            "ORDER BY a.attendance_key";
+
+    private static final String FIND_LEGACY_ATTENDANCE =
+            "SELECT r.ordinal, a.attendance FROM session_entity_attendance a " +
+            "JOIN course_roster r ON r.course_id = :courseId AND r.student_user_id = a.attendance_key " +
+            "WHERE a.session_entity_session_id = :sessionId";
+
+    private static final String CLOSE_LEGACY_SESSION =
+            "UPDATE session_entity SET roster_bitmap = :roster, attendance_bitmap = :attendance, snapshot_event_id = 0, " +
+            "status = 'CLOSED', closes_at = COALESCE(closes_at, :closedAt) WHERE session_id = :sessionId";
+
+    private static final String DELETE_LEGACY_ATTENDANCE =
+            "DELETE FROM session_entity_attendance WHERE session_entity_session_id = :sessionId";
+
+    private static final RowMapper<SessionBitmaps> SESSION_BITMAPS = (resultSet, rowNum) -> {
+        byte[] roster = resultSet.getBytes(3);
+        Timestamp openedAt = resultSet.getTimestamp(6);
+        String status = resultSet.getString(7);
+        return new SessionBitmaps(
+                resultSet.getLong(1),
+                resultSet.getObject(2, LocalDate.class),
+                roster,
+                resultSet.getBytes(4),
+                resultSet.getBytes(5),
+                openedAt == null ? null : openedAt.toInstant(),
+                SessionStatus.resolve(status == null ? null : SessionStatus.valueOf(status), roster != null),
+                resultSet.getLong(8));
+    };
+
+    private static final RowMapper<LoggedEvent> LOGGED_EVENT = (resultSet, rowNum) -> new LoggedEvent(
+            resultSet.getLong(1),
+            resultSet.getLong(2),
+            resultSet.getInt(3),
+            AttendanceEventType.valueOf(resultSet.getString(4)),
+            resultSet.getTimestamp(5).toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AttendanceJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Resolves student numbers to their roster ordinal in the course of the session.
+     * @return student number -> ordinal for the students that are on the session's roster
+     */
+    public Map<String, Integer> findRosterOrdinals(Long sessionId, Collection<String> studentIds) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<String> ids = new ArrayList<>(studentIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("sessionId", sessionId)
+                    .addValue("studentIds", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            RowCallbackHandler collector = resultSet -> ordinals.put(resultSet.getString(1), resultSet.getInt(2));
+            jdbcTemplate.query(FIND_ROSTER_ORDINALS, parameters, collector);
+        }
+        return ordinals;
+    }
+
+    /**
+     * Locks the row of the course until the surrounding transaction ends, so ordinals are assigned one assignment at a time.
+     * @return the ordinal the next student of the course gets, 0 if the course has no roster yet
+     */
+    public int lockNextOrdinal(Long courseId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("courseId", courseId);
+        jdbcTemplate.query(LOCK_COURSE, params, (RowCallbackHandler) resultSet -> {
+        });
+        Integer nextOrdinal = jdbcTemplate.queryForObject(FIND_NEXT_ORDINAL, params, Integer.class);
+        return nextOrdinal == null ? 0 : nextOrdinal;
+    }
+
+    /**
+     * Gives up to CHUNK_SIZE enrolled students without a roster ordinal the ordinals from nextOrdinal on, in one insert.
+     * Call with the course locked, see lockNextOrdinal.
+     * @return number of students that got an ordinal
+     */
+    public int assignRosterOrdinals(Long courseId, int nextOrdinal) {
+        return jdbcTemplate.update(ASSIGN_ROSTER_ORDINALS, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("nextOrdinal", nextOrdinal)
+                .addValue("limit", CHUNK_SIZE));
+    }
+
+    /**
+     * Reads one chunk of the enrolled students of the course by ordinal, pass the last ordinal read to get the next chunk.
+     * @param afterOrdinal -1 for the first chunk
+     * @param collector receives the ordinal and student number of every student in the chunk
+     * @return number of students read, less than CHUNK_SIZE for the last chunk
+     */
+    public int findEnrolledOrdinals(Long courseId, int afterOrdinal, ObjIntConsumer<String> collector) {
+        int[] count = {0};
+        jdbcTemplate.query(FIND_ENROLLED_ORDINALS, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("afterOrdinal", afterOrdinal)
+                .addValue("limit", CHUNK_SIZE), (RowCallbackHandler) resultSet -> {
+            collector.accept(resultSet.getString(2), resultSet.getInt(1));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Reads the bitmaps of the session and locks its row until the surrounding transaction ends.
+     * @return the bitmaps, empty if the session doesn't exist
+     */
+    public Optional<SessionBitmaps> lockSessionBitmaps(Long sessionId) {
+        List<SessionBitmaps> rows = jdbcTemplate.query(LOCK_SESSION_BITMAPS,
+                new MapSqlParameterSource("sessionId", sessionId), SESSION_BITMAPS);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Takes a shared lock on the row of the session until the surrounding transaction ends. Event writers hold it
+     * while they append, so a snapshot, which locks the row exclusively, waits for every event that got a lower id
+     * to commit and never moves its snapshot_event_id past an event it didn't see.
+     * @return false if the session doesn't exist
+     */
+    public boolean lockSessionForEvents(Long sessionId) {
+        return !jdbcTemplate.queryForList(LOCK_SESSION_FOR_EVENTS,
+                new MapSqlParameterSource("sessionId", sessionId), Long.class).isEmpty();
+    }
+
+    /**
+     * @return the highest event id any session was snapshotted up to, 0 if none was
+     */
+    public long findSnapshottedEventId() {
+        Long snapshottedEventId = jdbcTemplate.queryForObject(FIND_SNAPSHOTTED_EVENT_ID,
+                new MapSqlParameterSource(), Long.class);
+        return snapshottedEventId == null ? 0 : snapshottedEventId;
+    }
+
+    /**
+     * @return the bitmaps of the session, empty if the session doesn't exist
+     */
+    public Optional<SessionBitmaps> findSessionBitmaps(Long sessionId) {
+        return jdbcTemplate.query(FIND_SESSION_BITMAPS,
+                new MapSqlParameterSource("sessionId", sessionId), SESSION_BITMAPS).stream().findFirst();
+    }
+
+    /**
+     * @return every session that was started and isn't closed yet
+     */
+    public List<OpenSession> findOpenSessions() {
+        return jdbcTemplate.query(FIND_OPEN_SESSIONS, (resultSet, rowNum) -> {
+            Timestamp closesAt = resultSet.getTimestamp(3);
+            return new OpenSession(
+                    resultSet.getLong(1),
+                    resultSet.getObject(2, LocalDate.class),
+                    closesAt == null ? null : closesAt.toInstant());
+        });
+    }
+
+    /**
+     * @return student number -> ordinal of the students on the session's roster
+     */
+    public Map<String, Integer> findSessionRoster(Long sessionId) {
+        Map<String, Integer> roster = new HashMap<>();
+        RowCallbackHandler collector = resultSet -> roster.put(resultSet.getString(1), resultSet.getInt(2));
+        jdbcTemplate.query(FIND_SESSION_ROSTER, new MapSqlParameterSource("sessionId", sessionId), collector);
+        return roster;
+    }
+
+    /**
+     * Stores the attendance and check-in times with the events up to snapshotEventId folded in.
+     */
+    public void updateSnapshot(Long sessionId, byte[] attendance, byte[] arrivals, long snapshotEventId) {
+        jdbcTemplate.update(UPDATE_SNAPSHOT, new MapSqlParameterSource()
+                .addValue("attendance", attendance)
+                .addValue("arrivals", arrivals)
+                .addValue("snapshotEventId", snapshotEventId)
+                .addValue("sessionId", sessionId));
+    }
+
+    /**
+     * Appends the events in order as one JDBC batch, rewritten into multi-row inserts by the driver.
+     * An event whose request id was already appended for the student in the session is skipped.
+     */
+    public void appendEvents(List<AttendanceEvent> events) {
+        MapSqlParameterSource[] batch = events.stream()
+                .map(event -> new MapSqlParameterSource()
+                        .addValue("sessionId", event.sessionId())
+                        .addValue("ordinal", event.ordinal())
+                        .addValue("type", event.type().name())
+                        .addValue("recordedBy", event.recordedBy())
+                        .addValue("recordedAt", Timestamp.from(event.recordedAt()))
+                        .addValue("requestId", event.requestId()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(APPEND_EVENT, batch);
+    }
+
+    /**
+     * @return id of the session's last attendance event, 0 if it has none
+     */
+    public long findLastEventId(Long sessionId) {
+        Long lastEventId = jdbcTemplate.queryForObject(FIND_LAST_EVENT_ID,
+                new MapSqlParameterSource("sessionId", sessionId), Long.class);
+        return lastEventId == null ? 0 : lastEventId;
+    }
+
+    /**
+     * @return the events of the session after the given id, in the order they were appended
+     */
+    public List<LoggedEvent> findSessionEventsAfter(Long sessionId, long eventId) {
+        return jdbcTemplate.query(FIND_SESSION_EVENTS_AFTER, new MapSqlParameterSource()
+                .addValue("sessionId", sessionId)
+                .addValue("eventId", eventId), LOGGED_EVENT);
+    }
+
+    /**
+     * @return the events of the course's sessions after the given id, in the order they were appended
+     */
+    public List<LoggedEvent> findCourseEventsAfter(Long courseId, long eventId) {
+        return jdbcTemplate.query(FIND_COURSE_EVENTS_AFTER, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("eventId", eventId), LOGGED_EVENT);
+    }
+
+    /**
+     * @return session id -> id of its last event, for the sessions with events after the given id
+     */
+    public Map<Long, Long> findSessionsWithEventsAfter(long eventId) {
+        Map<Long, Long> lastEventIds = new HashMap<>();
+        RowCallbackHandler collector = resultSet -> lastEventIds.put(resultSet.getLong(1), resultSet.getLong(2));
+        jdbcTemplate.query(FIND_SESSIONS_WITH_EVENTS_AFTER, new MapSqlParameterSource("eventId", eventId), collector);
+        return lastEventIds;
+    }
+
+    /**
+     * @return ordinal -> last event of the student in the session, for the ordinals that have events
+     */
+    public Map<Integer, LatestEvent> findLatestEvents(Long sessionId, Collection<Integer> ordinals) {
+        Map<Integer, LatestEvent> latestEvents = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(ordinals);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("sessionId", sessionId)
+                    .addValue("ordinals", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            RowCallbackHandler collector = resultSet -> latestEvents.put(resultSet.getInt(1), new LatestEvent(
+                    resultSet.getInt(1),
+                    AttendanceEventType.valueOf(resultSet.getString(2)),
+                    resultSet.getTimestamp(3).toInstant()));
+            jdbcTemplate.query(FIND_LATEST_EVENTS, parameters, collector);
+        }
+        return latestEvents;
+    }
+
+    /**
+     * @return every attendance event of the session in the order they were appended
+     */
+    public List<AuditedEvent> findSessionEvents(Long sessionId) {
+        return jdbcTemplate.query(FIND_SESSION_EVENTS,
+                new MapSqlParameterSource("sessionId", sessionId), (resultSet, rowNum) -> new AuditedEvent(
+                        resultSet.getLong(1),
+                        resultSet.getString(2),
+                        AttendanceEventType.valueOf(resultSet.getString(3)),
+                        resultSet.getObject(4, Long.class),
+                        resultSet.getTimestamp(5).toInstant()));
+    }
+
+    /**
+     * Marks the session as closed at the given time.
+     * @param attendance final attendance bitmap, null to keep the stored one
+     * @param arrivals final check-in times, null to keep the stored ones
+     * @param snapshotEventId id of the last event in the final attendance
+     */
+    public void closeSession(Long sessionId, byte[] attendance, byte[] arrivals, long snapshotEventId, Instant closedAt) {
+        jdbcTemplate.update(CLOSE_SESSION, new MapSqlParameterSource()
+                .addValue("attendance", attendance)
+                .addValue("arrivals", arrivals)
+                .addValue("snapshotEventId", snapshotEventId)
+                .addValue("closedAt", Timestamp.from(closedAt))
+                .addValue("sessionId", sessionId));
+    }
+
+    /**
+     * @return the bitmaps of the started sessions of the course ordered by date
+     */
+    public List<SessionBitmaps> findCourseSessionBitmaps(Long courseId) {
+        return jdbcTemplate.query(FIND_COURSE_SESSION_BITMAPS,
+                new MapSqlParameterSource("courseId", courseId), SESSION_BITMAPS);
+    }
+
+    /**
+     * @return every student that ever got an ordinal in the course, ordered by ordinal
+     */
+    public List<RosterStudent> findRosterStudents(Long courseId) {
+        return jdbcTemplate.query(FIND_ROSTER_STUDENTS,
+                new MapSqlParameterSource("courseId", courseId), (resultSet, rowNum) -> new RosterStudent(
+                        resultSet.getInt(1),
+                        resultSet.getString(2),
+                        resultSet.getString(3),
+                        resultSet.getString(4)));
+    }
+
+    /**
+     * @return true if the table of the attendance recorded before the bitmaps still exists
+     */
+    public boolean hasLegacyAttendance() {
+        Long tables = jdbcTemplate.queryForObject(HAS_LEGACY_ATTENDANCE, new MapSqlParameterSource(), Long.class);
+        return tables != null && tables > 0;
+    }
+
+    /**
+     * Reads one chunk of the sessions with attendance recorded before the bitmaps,
+     * pass the last session id read to get the next chunk.
+     * @param afterSessionId 0 for the first chunk
+     */
+    public List<Long> findLegacySessionIds(long afterSessionId) {
+        return jdbcTemplate.queryForList(FIND_LEGACY_SESSION_IDS, new MapSqlParameterSource()
+                .addValue("afterSessionId", afterSessionId)
+                .addValue("limit", CHUNK_SIZE), Long.class);
+    }
+
+    /**
+     * @return the session's course and its lecturer, empty if the session doesn't exist
+     */
+    public Optional<SessionCourse> findSessionCourse(Long sessionId) {
+        return jdbcTemplate.query(FIND_SESSION_COURSE, new MapSqlParameterSource("sessionId", sessionId),
+                (resultSet, rowNum) -> new SessionCourse(resultSet.getLong(1), resultSet.getObject(2, Long.class)))
+                .stream().findFirst();
+    }
+
+    /**
+     * Gives the students of the session's legacy attendance without a roster ordinal the ordinals from nextOrdinal on,
+     * whether or not they are still enrolled. Call with the course locked, see lockNextOrdinal.
+     * @return number of students that got an ordinal
+     */
+    public int assignLegacyRosterOrdinals(Long sessionId, Long courseId, int nextOrdinal) {
+        return jdbcTemplate.update(ASSIGN_LEGACY_ROSTER_ORDINALS, new MapSqlParameterSource()
+                .addValue("sessionId", sessionId)
+                .addValue("courseId", courseId)
+                .addValue("nextOrdinal", nextOrdinal));
+    }
+
+    /**
+     * Reads the attendance the session recorded before the bitmaps, one row per expected student.
+     * @param collector receives the roster ordinal of every expected student and whether the student attended
+     */
+    public void findLegacyAttendance(Long sessionId, Long courseId, ObjIntConsumer<Boolean> collector) {
+        jdbcTemplate.query(FIND_LEGACY_ATTENDANCE, new MapSqlParameterSource()
+                .addValue("sessionId", sessionId)
+                .addValue("courseId", courseId), (RowCallbackHandler) resultSet ->
+                collector.accept(resultSet.getBoolean(2), resultSet.getInt(1)));
+    }
+
+    /**
+     * Stores the bitmaps built from the session's legacy attendance and closes the session, then deletes the legacy rows.
+     */
+    public void replaceLegacyAttendance(Long sessionId, byte[] roster, byte[] attendance, Instant closedAt) {
+        jdbcTemplate.update(CLOSE_LEGACY_SESSION, new MapSqlParameterSource()
+                .addValue("roster", roster)
+                .addValue("attendance", attendance)
+                .addValue("closedAt", Timestamp.from(closedAt))
+                .addValue("sessionId", sessionId));
+        jdbcTemplate.update(DELETE_LEGACY_ATTENDANCE, new MapSqlParameterSource("sessionId", sessionId));
+    }
+
+    /**
+     * @return the ordinal the next student of the course gets, the length of the course's bitmaps
+     */
+    public int findNextOrdinal(Long courseId) {
+        Integer nextOrdinal = jdbcTemplate.queryForObject(FIND_NEXT_ORDINAL,
+                new MapSqlParameterSource("courseId", courseId), Integer.class);
+        return nextOrdinal == null ? 0 : nextOrdinal;
+    }
+
+    /**
+     * Streams the roster of the session row by row, the caller looks the attendance up by ordinal.
+     * MySQL Connector/J streams the result set instead of buffering it for a fetch size of Integer.MIN_VALUE.
+     */
+    public void streamSessionAttendees(Long sessionId, Consumer<RosterStudent> consumer) {
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(STREAM_SESSION_ATTENDEES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+            preparedStatement.setLong(1, sessionId);
+            return preparedStatement;
+        };
+        RowCallbackHandler streamer = resultSet -> consumer.accept(new RosterStudent(
+                resultSet.getInt(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getString(4)));
+        jdbcTemplate.getJdbcOperations().query(statement, streamer);
+    }
+}
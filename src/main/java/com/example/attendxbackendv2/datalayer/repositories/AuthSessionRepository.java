@@ -0,0 +1,46 @@
+package com.example.attendxbackendv2.datalayer.repositories;
+
+import com.example.attendxbackendv2.datalayer.entities.AuthSessionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AuthSessionRepository extends JpaRepository<AuthSessionEntity, Long> {
+
+    /**
+     * Finds a not yet expired session together with its user in a single query.
+     */
+    @Query("select s from AuthSessionEntity s join fetch s.user where s.token = :token and s.expiresAt > :now")
+    Optional<AuthSessionEntity> findActiveByToken(@Param("token") UUID token, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from AuthSessionEntity s where s.token = :token")
+    int deleteByToken(@Param("token") UUID token);
+
+    /**
+     * Deletes every session of the user, so the user's row can be deleted.
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from AuthSessionEntity s where s.user.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes at most batchSize expired sessions in its own transaction, so the sweeper never holds long locks.
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM auth_session WHERE expires_at <= :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+}
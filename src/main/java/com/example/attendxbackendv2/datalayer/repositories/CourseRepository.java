@@ -2,10 +2,13 @@ package com.example.attendxbackendv2.datalayer.repositories;
 
 import com.example.attendxbackendv2.datalayer.entities.CourseEntity;
 import com.example.attendxbackendv2.datalayer.entities.LecturerEntity;
+import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +17,12 @@ import java.util.Optional;
 public interface CourseRepository extends JpaRepository<CourseEntity, Long> , PagingAndSortingRepository<CourseEntity,Long> {
     Optional<CourseEntity> findCourseEntityByCourseCodeIgnoreCase(String courseCode);
     Page<CourseEntity> findAllByLecturer(Pageable pageable, LecturerEntity lecturer);
+    Page<CourseEntity> findAllByLecturerUserId(Pageable pageable, Long userId);
+
+    /**
+     * Pages the enrolled students of the course by student number without loading the course's student list.
+     */
+    @Query(value = "SELECT s FROM CourseEntity c JOIN c.enrolledStudents s WHERE c.courseId = :courseId ORDER BY s.studentId",
+            countQuery = "SELECT COUNT(s) FROM CourseEntity c JOIN c.enrolledStudents s WHERE c.courseId = :courseId")
+    Page<StudentEntity> findEnrolledStudents(@Param("courseId") Long courseId, Pageable pageable);
 }
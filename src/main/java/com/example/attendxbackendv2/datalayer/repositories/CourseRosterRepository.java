@@ -0,0 +1,9 @@
+package com.example.attendxbackendv2.datalayer.repositories;
+
+import com.example.attendxbackendv2.datalayer.entities.CourseRosterEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CourseRosterRepository extends JpaRepository<CourseRosterEntity, Long> {
+}
@@ -0,0 +1,329 @@
+package com.example.attendxbackendv2.datalayer.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set based access to the course enrollments, the join table of CourseEntity.enrolledStudents, the seat counters
+ * of the courses and their waitlists, for the enrollment paths that must not hydrate the course's or the students' collections.
+ * Writes here bypass the collections, so a course loaded in the same transaction keeps its old students.
+ */
+@Repository
+public class EnrollmentJdbcRepository {
+
+    /**
+     * Keeps IN lists to a size MySQL plans and sends efficiently
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * A student enrolled in a course
+     */
+    public record Enrollment(Long courseId, Long userId) {
+    }
+
+    private static final String FIND_ENROLLED_USER_IDS =
+            "SELECT enrolled_students_user_id FROM course_entity_enrolled_students " +
+            "WHERE course_entity_course_id = :courseId";
+
+    private static final String ENROLL =
+            "INSERT INTO course_entity_enrolled_students (course_entity_course_id, enrolled_students_user_id) " +
+            "VALUES (:courseId, :userId)";
+
+    private static final String UNENROLL =
+            "DELETE FROM course_entity_enrolled_students " +
+            "WHERE course_entity_course_id = :courseId AND enrolled_students_user_id IN (:userIds)";
+
+    private static final String ENROLL_IGNORING_DUPLICATES =
+            "INSERT IGNORE INTO course_entity_enrolled_students (course_entity_course_id, enrolled_students_user_id) " +
+            "VALUES (:courseId, :userId)";
+
+    private static final String FIND_ENROLLMENTS =
+            "SELECT course_entity_course_id, enrolled_students_user_id FROM course_entity_enrolled_students " +
+            "WHERE course_entity_course_id IN (:courseIds) AND enrolled_students_user_id IN (:userIds)";
+
+    private static final String FIND_COURSE_IDS =
+            "SELECT UPPER(course_code), course_id FROM course_entity WHERE course_code IN (:courseCodes)";
+
+    private static final String FIND_STUDENT_USER_IDS =
+            "SELECT student_id, user_id FROM student_entity WHERE student_id IN (:studentIds)";
+
+    private static final String IS_ENROLLED =
+            "SELECT COUNT(*) FROM course_entity_enrolled_students " +
+            "WHERE course_entity_course_id = :courseId AND enrolled_students_user_id = :userId";
+
+    private static final String TAKE_SEAT =
+            "UPDATE course_entity SET seats_taken = seats_taken + 1 " +
+            "WHERE course_id = :courseId AND (capacity IS NULL OR seats_taken < capacity)";
+
+    private static final String RELEASE_SEAT =
+            "UPDATE course_entity SET seats_taken = seats_taken - 1 WHERE course_id = :courseId AND seats_taken > 0";
+
+    private static final String LOCK_FREE_SEATS =
+            "SELECT capacity - seats_taken FROM course_entity WHERE course_id = :courseId FOR UPDATE";
+
+    private static final String RECOUNT_SEATS =
+            "UPDATE course_entity c SET c.seats_taken = (SELECT COUNT(*) FROM course_entity_enrolled_students e " +
+            "WHERE e.course_entity_course_id = c.course_id) WHERE c.course_id IN (:courseIds)";
+
+    private static final String RECOUNT_UNCOUNTED_SEATS =
+            "UPDATE course_entity c SET c.seats_taken = (SELECT COUNT(*) FROM course_entity_enrolled_students e " +
+            "WHERE e.course_entity_course_id = c.course_id) WHERE c.seats_taken = 0 AND EXISTS " +
+            "(SELECT 1 FROM course_entity_enrolled_students e WHERE e.course_entity_course_id = c.course_id)";
+
+    private static final String JOIN_WAITLIST =
+            "INSERT IGNORE INTO course_waitlist (course_id, student_user_id, waitlisted_at) " +
+            "VALUES (:courseId, :userId, :waitlistedAt)";
+
+    private static final String LEAVE_WAITLIST =
+            "DELETE FROM course_waitlist WHERE course_id = :courseId AND student_user_id = :userId";
+
+    private static final String FIND_WAITLIST_HEAD =
+            "SELECT student_user_id FROM course_waitlist WHERE course_id = :courseId " +
+            "ORDER BY waitlist_id LIMIT :limit FOR UPDATE";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EnrollmentJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return user ids of the students enrolled in the course
+     */
+    public List<Long> findEnrolledUserIds(Long courseId) {
+        return jdbcTemplate.queryForList(FIND_ENROLLED_USER_IDS, new MapSqlParameterSource("courseId", courseId), Long.class);
+    }
+
+    /**
+     * Enrolls the student with a single insert, the unique key of the join table rejects a second enrollment.
+     * @return false if the student is already enrolled in the course
+     */
+    public boolean enroll(Long courseId, Long userId) {
+        try {
+            jdbcTemplate.update(ENROLL, new MapSqlParameterSource()
+                    .addValue("courseId", courseId)
+                    .addValue("userId", userId));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Enrolls the students as one batch, which the driver rewrites into a multi row insert.
+     * @param userIds user ids of students not enrolled in the course yet
+     */
+    public void enroll(Long courseId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = userIds.stream()
+                .map(userId -> new MapSqlParameterSource()
+                        .addValue("courseId", courseId)
+                        .addValue("userId", userId))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(ENROLL, batch);
+    }
+
+    /**
+     * Enrolls the students as one batch, an enrollment that exists already is skipped by the unique key.
+     * @return the enrollments that were inserted, in the order given
+     */
+    public List<Enrollment> enrollAll(Collection<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return List.of();
+        }
+        List<Enrollment> requested = List.copyOf(enrollments);
+        MapSqlParameterSource[] batch = requested.stream()
+                .map(enrollment -> new MapSqlParameterSource()
+                        .addValue("courseId", enrollment.courseId())
+                        .addValue("userId", enrollment.userId()))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] affectedRows = jdbcTemplate.batchUpdate(ENROLL_IGNORING_DUPLICATES, batch);
+        List<Enrollment> inserted = new ArrayList<>(requested.size());
+        for (int index = 0; index < affectedRows.length; index++) {
+            // a driver that rewrites the batch reports SUCCESS_NO_INFO, the row is counted as inserted
+            if (affectedRows[index] != 0) {
+                inserted.add(requested.get(index));
+            }
+        }
+        return inserted;
+    }
+
+    public boolean isEnrolled(Long courseId, Long userId) {
+        Long count = jdbcTemplate.queryForObject(IS_ENROLLED, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("userId", userId), Long.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Takes a seat of the course if one is free, with a single conditional update of its seat counter.
+     * @return false if the course is full or doesn't exist
+     */
+    public boolean takeSeat(Long courseId) {
+        return jdbcTemplate.update(TAKE_SEAT, new MapSqlParameterSource("courseId", courseId)) == 1;
+    }
+
+    public void releaseSeat(Long courseId) {
+        jdbcTemplate.update(RELEASE_SEAT, new MapSqlParameterSource("courseId", courseId));
+    }
+
+    /**
+     * Locks the row of the course until the surrounding transaction ends, so no seat is taken meanwhile.
+     * @return number of free seats, null for a course without a limit, may be negative for an over-enrolled course
+     */
+    public Integer lockFreeSeats(Long courseId) {
+        List<Integer> freeSeats = jdbcTemplate.queryForList(LOCK_FREE_SEATS,
+                new MapSqlParameterSource("courseId", courseId), Integer.class);
+        return freeSeats.isEmpty() ? null : freeSeats.get(0);
+    }
+
+    /**
+     * Sets the seat counters of the courses to their number of enrolled students.
+     */
+    public void recountSeats(Collection<Long> courseIds) {
+        if (!courseIds.isEmpty()) {
+            jdbcTemplate.update(RECOUNT_SEATS, new MapSqlParameterSource("courseIds", courseIds));
+        }
+    }
+
+    /**
+     * Sets the seat counters that are still 0 although the course has enrolled students, as every course enrolled
+     * before the counter was added has.
+     * @return number of courses recounted
+     */
+    public int recountUncountedSeats() {
+        return jdbcTemplate.update(RECOUNT_UNCOUNTED_SEATS, new MapSqlParameterSource());
+    }
+
+    /**
+     * Puts the student at the end of the waitlist of the course, a student already on it keeps the place.
+     */
+    public void joinWaitlist(Long courseId, Long userId, Instant waitlistedAt) {
+        jdbcTemplate.update(JOIN_WAITLIST, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("userId", userId)
+                .addValue("waitlistedAt", Timestamp.from(waitlistedAt)));
+    }
+
+    /**
+     * Puts the students at the end of the waitlists as one batch, in the order given,
+     * a student already on a waitlist keeps the place.
+     */
+    public void joinWaitlists(Collection<Enrollment> enrollments, Instant waitlistedAt) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.from(waitlistedAt);
+        MapSqlParameterSource[] batch = enrollments.stream()
+                .map(enrollment -> new MapSqlParameterSource()
+                        .addValue("courseId", enrollment.courseId())
+                        .addValue("userId", enrollment.userId())
+                        .addValue("waitlistedAt", timestamp))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(JOIN_WAITLIST, batch);
+    }
+
+    /**
+     * Takes the students off the waitlists of the courses they are enrolled in now, as one batch.
+     */
+    public void leaveWaitlists(Collection<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = enrollments.stream()
+                .map(enrollment -> new MapSqlParameterSource()
+                        .addValue("courseId", enrollment.courseId())
+                        .addValue("userId", enrollment.userId()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(LEAVE_WAITLIST, batch);
+    }
+
+    /**
+     * Reads and locks the first students of the waitlist of the course.
+     * @return user ids of the students in the order of the waitlist
+     */
+    public List<Long> findWaitlistHead(Long courseId, int limit) {
+        return jdbcTemplate.queryForList(FIND_WAITLIST_HEAD, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("limit", limit), Long.class);
+    }
+
+    /**
+     * @return the enrollments of any of the students in any of the courses
+     */
+    public Set<Enrollment> findEnrollments(Collection<Long> courseIds, Collection<Long> userIds) {
+        Set<Enrollment> enrollments = new HashSet<>();
+        if (courseIds.isEmpty()) {
+            return enrollments;
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("courseIds", courseIds)
+                    .addValue("userIds", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            RowCallbackHandler collector = resultSet ->
+                    enrollments.add(new Enrollment(resultSet.getLong(1), resultSet.getLong(2)));
+            jdbcTemplate.query(FIND_ENROLLMENTS, params, collector);
+        }
+        return enrollments;
+    }
+
+    /**
+     * @return upper case course code -> course id of the courses that exist
+     */
+    public Map<String, Long> findCourseIds(Collection<String> courseCodes) {
+        return findIds(FIND_COURSE_IDS, "courseCodes", courseCodes);
+    }
+
+    /**
+     * @return student number -> user id of the students that exist
+     */
+    public Map<String, Long> findStudentUserIds(Collection<String> studentIds) {
+        return findIds(FIND_STUDENT_USER_IDS, "studentIds", studentIds);
+    }
+
+    /**
+     * Unenrolls the students with one delete per chunk.
+     * @return number of students unenrolled
+     */
+    public int unenroll(Long courseId, Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        int unenrolled = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            unenrolled += jdbcTemplate.update(UNENROLL, new MapSqlParameterSource()
+                    .addValue("courseId", courseId)
+                    .addValue("userIds", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))));
+        }
+        return unenrolled;
+    }
+
+    private Map<String, Long> findIds(String sql, String parameter, Collection<String> keys) {
+        List<String> values = new ArrayList<>(keys);
+        Map<String, Long> ids = new HashMap<>();
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource(parameter,
+                    values.subList(from, Math.min(from + CHUNK_SIZE, values.size())));
+            RowCallbackHandler collector = resultSet -> ids.put(resultSet.getString(1), resultSet.getLong(2));
+            jdbcTemplate.query(sql, params, collector);
+        }
+        return ids;
+    }
+}
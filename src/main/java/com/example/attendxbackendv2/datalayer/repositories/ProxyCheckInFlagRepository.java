@@ -0,0 +1,13 @@
+package com.example.attendxbackendv2.datalayer.repositories;
+
+import com.example.attendxbackendv2.datalayer.entities.ProxyCheckInFlagEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProxyCheckInFlagRepository extends JpaRepository<ProxyCheckInFlagEntity, Long> {
+
+    List<ProxyCheckInFlagEntity> findAllBySessionIdOrderByFlagId(Long sessionId);
+}
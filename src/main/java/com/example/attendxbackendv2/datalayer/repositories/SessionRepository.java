@@ -2,12 +2,58 @@ package com.example.attendxbackendv2.datalayer.repositories;
 
 import com.example.attendxbackendv2.datalayer.entities.CourseEntity;
 import com.example.attendxbackendv2.datalayer.entities.SessionEntity;
+import com.example.attendxbackendv2.datalayer.entities.SessionStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<SessionEntity, Long> {
     Optional<SessionEntity> findByCourse(CourseEntity course);
+
+    Page<SessionEntity> findAllByCourseCourseIdAndSessionDateLessThanEqual(Long courseId, LocalDate sessionDate, Pageable pageable);
+
+    /**
+     * Marks the student as attended by appending a check-in event for the student's roster ordinal,
+     * without loading or updating the session. The insert only reads the session row, under the default
+     * REPEATABLE READ isolation with a shared lock like the other event writers take, see
+     * AttendanceJdbcRepository.lockSessionForEvents.
+     * A check-in whose request id was already appended isn't appended again but still counts as matched.
+     * @param requestId idempotency key of the check-in, may be null
+     * @return number of matched events, 0 if the student isn't on the session's roster or the session is closed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO attendance_event (session_id, ordinal, type, recorded_by, recorded_at, request_id) " +
+            "SELECT se.session_id, r.ordinal, 'CHECK_IN', NULL, :recordedAt, :requestId FROM session_entity se " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "WHERE se.session_id = :sessionId AND s.student_id = :studentId " +
+            "AND (se.status = 'OPEN' OR se.status IS NULL) " +
+            "AND (ASCII(SUBSTRING(se.roster_bitmap, r.ordinal DIV 8 + 1, 1)) & (1 << (r.ordinal % 8))) <> 0 " +
+            "ON DUPLICATE KEY UPDATE attendance_event.event_id = attendance_event.event_id", nativeQuery = true)
+    int markAttended(@Param("sessionId") Long sessionId, @Param("studentId") String studentId,
+                     @Param("requestId") String requestId, @Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Checks the roster bit of the student in the session using the same key as markAttended.
+     * @return 1 if the student is on the session's roster, 0 otherwise
+     */
+    @Query(value = "SELECT COUNT(*) FROM session_entity se " +
+            "JOIN course_roster r ON r.course_id = se.course_course_id " +
+            "JOIN student_entity s ON s.user_id = r.student_user_id " +
+            "WHERE se.session_id = :sessionId AND s.student_id = :studentId " +
+            "AND (ASCII(SUBSTRING(se.roster_bitmap, r.ordinal DIV 8 + 1, 1)) & (1 << (r.ordinal % 8))) <> 0", nativeQuery = true)
+    long countAttendee(@Param("sessionId") Long sessionId, @Param("studentId") String studentId);
+
+    boolean existsBySessionIdAndStatus(Long sessionId, SessionStatus status);
 }
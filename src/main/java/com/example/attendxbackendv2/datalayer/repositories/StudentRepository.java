@@ -5,11 +5,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends JpaRepository<StudentEntity, Long>, PagingAndSortingRepository<StudentEntity,Long> {
     Optional<StudentEntity> findStudentEntityByEmailIgnoreCase(String email);
     Optional<StudentEntity> findStudentEntityByStudentId(String studentId);
+    List<StudentEntity> findAllByStudentIdIn(Collection<String> studentIds);
 
 }
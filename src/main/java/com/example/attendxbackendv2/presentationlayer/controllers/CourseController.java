@@ -1,7 +1,9 @@
 package com.example.attendxbackendv2.presentationlayer.controllers;
 
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.*;
+import com.example.attendxbackendv2.security.AuthenticationContext;
 import com.example.attendxbackendv2.servicelayer.contants.CourseConstants;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
 import com.example.attendxbackendv2.servicelayer.interfaces.CourseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,13 +14,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
 
 @Tag(
         name = "Course API endpoints",
@@ -26,7 +32,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
 @Validated
-@CrossOrigin(origins = "${attendx.crossorigin.url}")
+@CrossOrigin(origins = "${attendx.crossorigin.url}", exposedHeaders = HttpHeaders.LOCATION)
 public class CourseController {
     private final CourseService courseService;
 
@@ -103,10 +109,8 @@ public class CourseController {
     public ResponseEntity<GenericListResponseDTO<CourseDTO>> getAllCourses(
             @RequestParam(value = "page-no", defaultValue = "0") int pageNo,
             @RequestParam(value = "ascending", defaultValue = "true") boolean ascending) {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        String token = request.getHeader("Authorization");
         GenericListResponseDTO<CourseDTO> response  = new GenericListResponseDTO<>();
-        response.setData(courseService.getAllCourses(pageNo, ascending, token));
+        response.setData(courseService.getAllCourses(pageNo, ascending, AuthenticationContext.requirePrincipal()));
         response.setPageNumber(courseService.getPageCount());
         return ResponseEntity
                 .status(HttpStatus.OK)
@@ -154,9 +158,7 @@ public class CourseController {
             produces = {MediaType.APPLICATION_JSON_VALUE}
     )
     public ResponseEntity<ResponseDTO> updateCourse(@Valid @RequestBody CourseDTO courseDTO) {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        String token = request.getHeader("Authorization");
-        boolean isCourseUpdated = courseService.updateCourse(courseDTO, token);
+        boolean isCourseUpdated = courseService.updateCourse(courseDTO, AuthenticationContext.requirePrincipal());
         if (isCourseUpdated) {
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ResponseDTO(
                     CourseConstants.STATUS_200, CourseConstants.MESSAGE_200));
@@ -173,7 +175,8 @@ public class CourseController {
             description = "Course student details by email from the attendX application. " +
                     "This will be mainly used to show all the course details in the UI. " +
                     "This section fetches the course code, course name, course description course lecturer's email" +
-                    "course start date, course end date, and department name of the course."
+                    "course start date, course end date, and department name of the course. " +
+                    "For large courses fetch without details and page the students and sessions from their sub-resources."
     )
     @ApiResponses(
             {
@@ -208,16 +211,91 @@ public class CourseController {
             })
     @GetMapping(path = "/course/{courseCode}", produces = {MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<CourseDTO> getStudentByEmail(@PathVariable String courseCode, @RequestParam(value = "get-details", defaultValue = "true") boolean getDetails) {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        String token = request.getHeader("Authorization");
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(courseService.getCourseByCourseCode(courseCode, getDetails, token));
+                .body(courseService.getCourseByCourseCode(courseCode, getDetails, AuthenticationContext.requirePrincipal()));
+    }
+
+    @Operation(
+            summary = "Fetch Course Students REST API",
+            description = "Fetch one page of the students enrolled in the course, sorted by student number"
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "HTTP Status OK",
+                            content = @Content(
+                                    schema = @Schema(implementation = StudentDTO.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "HTTP Status Not Found it may be causing due to trying to access non-existing course",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "HTTP Status Internal Server Error",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)
+                            )
+                    )
+            })
+    @GetMapping(path = "/course/{courseCode}/students", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<GenericListResponseDTO<StudentDTO>> getEnrolledStudents(
+            @PathVariable String courseCode,
+            @RequestParam(value = "page-no", defaultValue = "0") int pageNo) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(courseService.getEnrolledStudents(courseCode, pageNo, AuthenticationContext.requirePrincipal()));
+    }
+
+    @Operation(
+            summary = "Fetch Course Sessions REST API",
+            description = "Fetch one page of the sessions of the course up to today, sorted by date"
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "HTTP Status OK",
+                            content = @Content(
+                                    schema = @Schema(implementation = SessionDTO.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "HTTP Status Not Found it may be causing due to trying to access non-existing course",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "HTTP Status Internal Server Error",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)
+                            )
+                    )
+            })
+    @GetMapping(path = "/course/{courseCode}/sessions", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<GenericListResponseDTO<SessionDTO>> getCourseSessions(
+            @PathVariable String courseCode,
+            @RequestParam(value = "page-no", defaultValue = "0") int pageNo) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(courseService.getCourseSessions(courseCode, pageNo, AuthenticationContext.requirePrincipal()));
     }
 
     @Operation(
             summary = "Enroll Student Course REST API",
-            description = "Update the Student and Course in the AttendX application to enroll the student to the course."
+            description = "Update the Student and Course in the AttendX application to enroll the student to the course. " +
+                    "A student that finds the course full is put on its waitlist and enrolled once a seat frees up. " +
+                    "While the admission queue is enabled the request is answered with 202 right away and the Location " +
+                    "header points to its ticket, which can be polled or subscribed to for the outcome."
     )
     @ApiResponses({
             @ApiResponse(
@@ -227,6 +305,21 @@ public class CourseController {
                             schema = @Schema(implementation = ResponseDTO.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "HTTP Status Accepted, the course is full and the student is on the waitlist, " +
+                            "or the request is queued and the Location header points to its ticket",
+                    content = @Content(
+                            schema = @Schema(implementation = ResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "HTTP Status Service Unavailable, the admission queue is full, retry after the Retry-After header",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -247,16 +340,118 @@ public class CourseController {
     )
     public ResponseEntity<ResponseDTO> enrollToCourse(@RequestParam(name = "course-code") String courseCode,
                                                       @RequestParam(name = "student-id") String studentID) {
-        boolean isCourseUpdated = courseService.enrollStudent(courseCode,studentID);
-        if (isCourseUpdated) {
+        Optional<String> ticketId = courseService.queueEnrollment(courseCode, studentID,
+                AuthenticationContext.requirePrincipal());
+        if (ticketId.isPresent()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create(CourseConstants.ENROLLMENT_TICKET_PATH + ticketId.get()))
+                    .body(new ResponseDTO(CourseConstants.STATUS_202, CourseConstants.MESSAGE_202_QUEUED));
+        }
+        EnrollmentStatus enrollmentStatus = courseService.enrollStudent(courseCode,studentID);
+        if (enrollmentStatus == EnrollmentStatus.ENROLLED) {
             return ResponseEntity.status(HttpStatus.OK).body(new ResponseDTO(
                     CourseConstants.STATUS_200, CourseConstants.MESSAGE_200));
         } else {
-            return ResponseEntity.status(HttpStatus.EXPECTATION_FAILED).body(
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
                     new ResponseDTO(
-                            CourseConstants.STATUS_417, CourseConstants.MESSAGE_417_UPDATE)
+                            CourseConstants.STATUS_202, CourseConstants.MESSAGE_202_WAITLISTED)
             );
         }
     }
 
+    @Operation(
+            summary = "Fetch Enrollment Ticket REST API",
+            description = "Fetch a queued enrollment request, its status is QUEUED until it is processed and then its outcome. " +
+                    "Tickets are kept on the node that queued the request and forgotten a while after their outcome"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            schema = @Schema(implementation = EnrollmentTicketDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to an unknown, expired or another user's ticket",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/course/enrollment-tickets/{ticketId}", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<EnrollmentTicketDTO> getEnrollmentTicket(@PathVariable String ticketId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(courseService.getEnrollmentTicket(ticketId, AuthenticationContext.requirePrincipal()));
+    }
+
+    @Operation(
+            summary = "Enrollment Ticket Events REST API",
+            description = "Server-sent events of a queued enrollment request, the ticket is sent right away " +
+                    "and once more with the outcome, then the stream completes"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, a stream of enrollment events",
+                    content = @Content(
+                            schema = @Schema(implementation = EnrollmentTicketDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to an unknown, expired or another user's ticket",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/course/enrollment-tickets/{ticketId}/events",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+    public SseEmitter getEnrollmentTicketEvents(@PathVariable String ticketId) {
+        return courseService.subscribeToEnrollmentTicket(ticketId, AuthenticationContext.requirePrincipal());
+    }
+
+    @Operation(
+            summary = "Import Enrollments REST API",
+            description = "Enrolls students from a roster CSV sent as the request body, one course code and student number " +
+                    "per row under an optional course_code,student_id header. The roster may list several courses " +
+                    "and is processed as a stream, so any size of file can be uploaded. " +
+                    "Returns the counts of the import and the rows that couldn't be applied"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, the result holds the rows that couldn't be applied",
+                    content = @Content(
+                            schema = @Schema(implementation = EnrollmentImportResultDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/course/enrollments",
+            consumes = {"text/csv"},
+            produces = {MediaType.APPLICATION_JSON_VALUE}
+    )
+    public ResponseEntity<EnrollmentImportResultDTO> importEnrollments(HttpServletRequest request) throws IOException {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(courseService.importEnrollments(request.getInputStream()));
+    }
+
 }
@@ -17,8 +17,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.UUID;
-
 @Tag(
         name = "Login",
         description = "Login API endpoints")
@@ -39,10 +37,10 @@ public class LoginController {
     @PostMapping(value = "/login", consumes = {MediaType.APPLICATION_JSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<Object> login(@RequestBody LoginDTO loginDTO) {
         try {
-            UUID token = loginService.login(loginDTO.getEmail(), loginDTO.getPassword());
+            String token = loginService.login(loginDTO.getEmail(), loginDTO.getPassword());
             UserBaseDTO user = loginService.getUserByToken(token);
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(new TokenDTO(token.toString(), user));
+                    .body(new TokenDTO(token, user));
 
         } catch (InvalidCredentialsException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -106,7 +104,7 @@ public class LoginController {
     }
 
     @GetMapping(path = "/login", produces = {MediaType.APPLICATION_JSON_VALUE})
-    public ResponseEntity<Object> getUserDetailsByToken(@RequestParam(name = "token") UUID token) {
+    public ResponseEntity<Object> getUserDetailsByToken(@RequestParam(name = "token") String token) {
         try {
             UserBaseDTO user = loginService.getUserByToken(token);
             return ResponseEntity.status(HttpStatus.OK)
@@ -120,4 +118,32 @@ public class LoginController {
         }
     }
 
+    @Operation(
+            summary = "Token cache statistics REST API",
+            description = "Fetches hit, miss and eviction counts of the in-process token cache"
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "HTTP Status OK",
+                            content = @Content(
+                                    schema = @Schema(implementation = TokenCacheStatsDTO.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "HTTP Status Unauthorized, only editors can read the statistics",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping(path = "/login/cache-stats", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TokenCacheStatsDTO> getTokenCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(loginService.getTokenCacheStats());
+    }
+
 }
@@ -1,30 +1,48 @@
 package com.example.attendxbackendv2.presentationlayer.controllers;
 
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceEventDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceSyncDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceSyncResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.BatchAttendanceDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.BatchAttendanceResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CheckInCodeDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CheckInDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseAttendanceSummaryDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.ErrorResponseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.LiveAttendanceEventDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.ProxyCheckInFlagDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.ResponseDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionCardDTO;
+import com.example.attendxbackendv2.security.AuthenticationContext;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceReportWriter;
 import com.example.attendxbackendv2.servicelayer.contants.CourseConstants;
 import com.example.attendxbackendv2.servicelayer.contants.SessionConstants;
 import com.example.attendxbackendv2.servicelayer.interfaces.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(
         name = "Session",
@@ -36,6 +54,9 @@ import java.util.Map;
 public class SessionController {
 
 
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     private final SessionService sessionService;
 
     @Autowired
@@ -45,7 +66,9 @@ public class SessionController {
 
     @Operation(
             summary = "Attend Student Course Session REST API",
-            description = "Attend Student Course Session REST API"
+            description = "Marks a student as attended on behalf of the student, lecturers and editors only. " +
+                    "Students check in themselves with the session's check-in code. " +
+                    "A retry with the same Idempotency-Key header returns the original result"
     )
     @ApiResponses({
             @ApiResponse(
@@ -77,15 +100,27 @@ public class SessionController {
                     content = @Content(
                             schema = @Schema(implementation = ErrorResponseDTO.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "HTTP Status Service Unavailable, in buffered check-in mode the buffer is full. " +
+                            "Retry after the number of seconds in the Retry-After header",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
             )
     })
     @PatchMapping(path = "/session",
             produces = {MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<ResponseDTO> attendToSession(
             @RequestParam(name = "session-id", defaultValue = "null") Long sessionId,
-            @RequestParam(name = "student-id", defaultValue = "null") String userId) {
+            @RequestParam(name = "student-id", defaultValue = "null") String userId,
+            @RequestHeader(name = SessionConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+            @Pattern(regexp = SessionConstants.IDEMPOTENCY_KEY_PATTERN, message = "Idempotency key should be 1 to 64 letters, digits, '-' or '_'")
+            String requestId) {
 
-        boolean isAttended = sessionService.attendToSession(sessionId, userId);
+        boolean isAttended = sessionService.attendToSession(sessionId, userId, requestId,
+                AuthenticationContext.requirePrincipal());
 
         if (isAttended) {
             return ResponseEntity
@@ -100,9 +135,331 @@ public class SessionController {
     }
 
 
+    @Operation(
+            summary = "Batch Attendance REST API",
+            description = "Marks many students of a session as present or absent in one request. " +
+                    "Students that aren't enrolled to the session are reported in the result instead of failing the batch"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, the result holds the outcome of every student",
+                    content = @Content(
+                            schema = @Schema(implementation = BatchAttendanceResultDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course session",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request this may be cause due to invalid request body",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/session/{sessionId}/attendance",
+            consumes = {MediaType.APPLICATION_JSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BatchAttendanceResultDTO> markAttendance(
+            @PathVariable Long sessionId,
+            @Valid @RequestBody BatchAttendanceDTO batchAttendanceDTO) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.markAttendance(sessionId, batchAttendanceDTO.getMarks(),
+                        AuthenticationContext.requirePrincipal()));
+    }
+
+
+    @Operation(
+            summary = "Attendance Sync REST API",
+            description = "Applies the attendance a classroom device took offline, for one or more sessions. " +
+                    "The latest record of a student wins and a lecturer's override wins over any check-in. " +
+                    "Returns the students whose attendance changed and the records that couldn't be applied"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, the result holds the changes and the rejected records",
+                    content = @Content(
+                            schema = @Schema(implementation = AttendanceSyncResultDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request this may be cause due to invalid request body",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/session/attendance/sync",
+            consumes = {MediaType.APPLICATION_JSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<AttendanceSyncResultDTO> syncAttendance(
+            @Valid @RequestBody AttendanceSyncDTO attendanceSyncDTO) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.syncAttendance(attendanceSyncDTO.getRecords(),
+                        AuthenticationContext.requirePrincipal()));
+    }
+
+
+    @Operation(
+            summary = "Proxy Check-in Flags REST API",
+            description = "Returns the check-ins of the session that came from a device many students of the session " +
+                    "checked in from within a short window, for the lecturer to review"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            array = @ArraySchema(schema = @Schema(implementation = ProxyCheckInFlagDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course session",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/session/{sessionId}/proxy-flags",
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<ProxyCheckInFlagDTO>> getProxyCheckInFlags(
+            @PathVariable Long sessionId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.getProxyCheckInFlags(sessionId, AuthenticationContext.requirePrincipal()));
+    }
+
+
+    @Operation(
+            summary = "Attendance History REST API",
+            description = "Returns every check-in, correction and revoke of the session in the order they happened"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            array = @ArraySchema(schema = @Schema(implementation = AttendanceEventDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course session",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/session/{sessionId}/attendance/events",
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<AttendanceEventDTO>> getAttendanceEvents(
+            @PathVariable Long sessionId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.getAttendanceEvents(sessionId, AuthenticationContext.requirePrincipal()));
+    }
+
+
+    @Operation(
+            summary = "Check-in Code REST API",
+            description = "Returns the current rotating check-in code of an open session for the lecturer to show"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            schema = @Schema(implementation = CheckInCodeDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access a session that isn't open",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/session/{sessionId}/check-in-code",
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<CheckInCodeDTO> getCheckInCode(@PathVariable Long sessionId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.getCheckInCode(sessionId, AuthenticationContext.requirePrincipal()));
+    }
+
+
+    @Operation(
+            summary = "Student Check-in REST API",
+            description = "Checks the authenticated student in to an open session with the code shown by the lecturer. " +
+                    "A retry with the same Idempotency-Key header returns the original result"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "HTTP Status Accepted",
+                    content = @Content(
+                            schema = @Schema(implementation = ResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to check in to a session that isn't open",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request this may be cause due to an invalid or expired code " +
+                            "or a student that isn't on the session's roster",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "HTTP Status Too Many Requests, too many students checked in from this device " +
+                            "and proxy detection rejects them",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "HTTP Status Service Unavailable, the check-in buffer is full. " +
+                            "Retry after the number of seconds in the Retry-After header",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/session/{sessionId}/check-in",
+            consumes = {MediaType.APPLICATION_JSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ResponseDTO> checkIn(
+            @PathVariable Long sessionId,
+            @Valid @RequestBody CheckInDTO checkInDTO,
+            @RequestHeader(name = SessionConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+            @Pattern(regexp = SessionConstants.IDEMPOTENCY_KEY_PATTERN, message = "Idempotency key should be 1 to 64 letters, digits, '-' or '_'")
+            String requestId,
+            HttpServletRequest request) {
+        sessionService.checkIn(sessionId, AuthenticationContext.requirePrincipal(), checkInDTO.getCode(), requestId,
+                request.getRemoteAddr());
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED).body(new ResponseDTO(
+                        SessionConstants.STATUS_202, SessionConstants.MESSAGE_202));
+    }
+
+
+    @Operation(
+            summary = "Live Attendance REST API",
+            description = "Streams the attendance of an open session as server-sent events named attendance, " +
+                    "each holding the present and roster counts and the students that checked in since the previous event"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            schema = @Schema(implementation = LiveAttendanceEventDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to watch a session that isn't open",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/session/{sessionId}/live",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+    public SseEmitter getLiveAttendance(@PathVariable Long sessionId) {
+        return sessionService.subscribeToLiveAttendance(sessionId, AuthenticationContext.requirePrincipal());
+    }
+
+
+    @Operation(
+            summary = "Course Attendance Summary REST API",
+            description = "Summarizes the attendance of a course over its started sessions, " +
+                    "per session present and expected counts and per student attended and expected sessions"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            schema = @Schema(implementation = CourseAttendanceSummaryDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping(path = "/course/{courseCode}/attendance",
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<CourseAttendanceSummaryDTO> getCourseAttendanceSummary(
+            @PathVariable String courseCode) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(sessionService.getCourseAttendanceSummary(courseCode, AuthenticationContext.requirePrincipal()));
+    }
+
+
     @Operation(
             summary = "Starts Session REST API",
-            description = "Starts the session with given ID  REST API"
+            description = "Starts the session with given ID, it stays open for check-in until its check-in window ends"
     )
     @ApiResponses({
             @ApiResponse(
@@ -129,7 +486,8 @@ public class SessionController {
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "HTTP Status Bad Request this may be cause due to try to start the session with expired date",
+                    description = "HTTP Status Bad Request this may be cause due to try to start the session with expired date " +
+                            "or a closed session",
                     content = @Content(
                             schema = @Schema(implementation = ErrorResponseDTO.class)
                     )
@@ -154,6 +512,52 @@ public class SessionController {
     }
 
 
+    @Operation(
+            summary = "Close Session REST API",
+            description = "Closes the session before its check-in window ends and finalizes its attendance"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "HTTP Status Accepted",
+                    content = @Content(
+                            schema = @Schema(implementation = ResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course session",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/session/{sessionId}/close",
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ResponseDTO> closeSession(
+            @PathVariable Long sessionId) {
+        boolean isClosed = sessionService.closeSession(sessionId, AuthenticationContext.requirePrincipal());
+
+        if (isClosed) {
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED).body(new ResponseDTO(
+                            SessionConstants.STATUS_202, CourseConstants.MESSAGE_200));
+        } else {
+            return ResponseEntity.status(HttpStatus.EXPECTATION_FAILED).body(
+                    new ResponseDTO(
+                            SessionConstants.STATUS_417, CourseConstants.MESSAGE_417_UPDATE)
+            );
+        }
+    }
+
+
     @Operation(
             summary = "Get the Sessions for Lecturer REST API",
             description = "Fethces the Sessions for Lecturer REST API"
@@ -175,7 +579,8 @@ public class SessionController {
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "HTTP Status Bad Request this may be cause due to try to start the session with expired date",
+                    description = "HTTP Status Bad Request this may be cause due to try to start the session with expired date " +
+                            "or a closed session",
                     content = @Content(
                             schema = @Schema(implementation = ErrorResponseDTO.class)
                     )
@@ -183,26 +588,93 @@ public class SessionController {
     })
     @GetMapping(path = "/session", produces = {MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<Map<String,List<SessionCardDTO>>> getUpcomingSessionByToken() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        String token = request.getHeader("Authorization");
-        Map<String,List<SessionCardDTO>> upcomingSession = sessionService.getUpcomingSessionByToken(token);
+        Map<String,List<SessionCardDTO>> upcomingSession = sessionService.getUpcomingSessions(AuthenticationContext.requirePrincipal());
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(upcomingSession);
     }
 
 
+    @Operation(
+            summary = "Attendance Report REST API",
+            description = "Streams the attendance of the session as CSV, gzip compressed when the client accepts it"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found it may be causing due to trying to access non-existing course session",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
     @GetMapping(path = "/session/{sessionId}",
-            produces = {MediaType.APPLICATION_OCTET_STREAM_VALUE})
-    public ResponseEntity<byte[]> getAttendanceReport(
-            @PathVariable Long sessionId) {
+            produces = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAttendanceReport(
+            @PathVariable Long sessionId,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        byte[] file = sessionService.getAttendanceReport(sessionId);
+        AttendanceReportWriter report = sessionService.getAttendanceReport(sessionId);
+        boolean gzip = acceptsGzip(acceptEncoding);
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentDispositionFormData("attachment", "attendance.pdf");
+        headers.setContentType(CSV);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("attendance-" + sessionId + ".csv")
+                .build());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                report.writeTo(compressed);
+                compressed.finish();
+            } else {
+                report.writeTo(out);
+            }
+        };
         return ResponseEntity
                 .ok()
                 .headers(headers)
-                .body(file);
+                .body(body);
+    }
+
+    /**
+     * @return true if the Accept-Encoding header lists gzip (or *) without q=0
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.trim().split(";");
+            String name = parameters[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].replace(" ", "");
+                if (parameter.matches("q=0(\\.0{0,3})?")) {
+                    rejected = true;
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
     }
 }
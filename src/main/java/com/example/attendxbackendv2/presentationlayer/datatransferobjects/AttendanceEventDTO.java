@@ -0,0 +1,42 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "AttendanceEventDTO",
+        description = "Schema to hold one entry of a session's attendance history"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceEventDTO {
+
+    private Long eventId;
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "CHECK_IN by the student, CORRECTION or REVOKE by a lecturer",
+            example = "CHECK_IN"
+    )
+    private String type;
+
+    @Schema(
+            description = "User id of the lecturer or editor that made the change, null for a check-in",
+            example = "12"
+    )
+    private Long recordedBy;
+
+    @Schema(
+            description = "Time of the change",
+            example = "2024-03-18T09:41:07.512Z"
+    )
+    private String recordedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "AttendanceMarkDTO",
+        description = "Schema to hold the attendance of one student in a session"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceMarkDTO {
+
+    @NotEmpty(message = "Student id cannot be null or empty")
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Whether the student is present, defaults to true",
+            example = "true"
+    )
+    private boolean present = true;
+}
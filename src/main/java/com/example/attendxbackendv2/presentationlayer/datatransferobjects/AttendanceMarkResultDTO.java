@@ -0,0 +1,29 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceMarkStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "AttendanceMarkResultDTO",
+        description = "Schema to hold the outcome of one attendance mark"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceMarkResultDTO {
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Outcome of the mark",
+            example = "MARKED"
+    )
+    private AttendanceMarkStatus status;
+}
@@ -0,0 +1,26 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Schema(
+        name = "AttendanceSyncDTO",
+        description = "Schema to hold the attendance records a classroom device took offline, for one or more sessions"
+)
+@Data
+public class AttendanceSyncDTO {
+
+    @NotEmpty(message = "Records cannot be null or empty")
+    @Size(max = 10000, message = "A sync can hold at most 10000 records")
+    @Valid
+    @Schema(
+            description = "Records in any order, the latest record of a student in a session wins",
+            implementation = SyncRecordDTO.class
+    )
+    private List<SyncRecordDTO> records;
+}
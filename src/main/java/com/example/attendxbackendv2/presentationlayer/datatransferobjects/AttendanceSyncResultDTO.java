@@ -0,0 +1,40 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(
+        name = "AttendanceSyncResultDTO",
+        description = "Schema to hold the diff a sync made: the changed students, the rejected records and the counts of the rest"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceSyncResultDTO {
+
+    @Schema(
+            description = "Number of students whose attendance the sync changed",
+            example = "37"
+    )
+    private int appliedCount;
+
+    @Schema(
+            description = "Number of students whose attendance already matched their record",
+            example = "4"
+    )
+    private int unchangedCount;
+
+    @Schema(
+            description = "Number of students whose record lost to a later or a lecturer's change",
+            example = "2"
+    )
+    private int staleCount;
+
+    private List<SyncChangeDTO> changes;
+
+    private List<SyncRejectionDTO> rejections;
+}
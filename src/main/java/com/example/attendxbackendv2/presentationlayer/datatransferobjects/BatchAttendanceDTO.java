@@ -0,0 +1,24 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Schema(
+        name = "BatchAttendanceDTO",
+        description = "Schema to hold the attendance of many students in a session"
+)
+@Data
+public class BatchAttendanceDTO {
+
+    @NotEmpty(message = "Marks cannot be null or empty")
+    @Valid
+    @Schema(
+            description = "Attendance of the students, the last mark of a student wins if it's repeated",
+            implementation = AttendanceMarkDTO.class
+    )
+    private List<AttendanceMarkDTO> marks;
+}
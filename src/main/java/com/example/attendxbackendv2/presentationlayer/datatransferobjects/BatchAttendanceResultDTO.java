@@ -0,0 +1,34 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(
+        name = "BatchAttendanceResultDTO",
+        description = "Schema to hold the per student outcome of a batch attendance request"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchAttendanceResultDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Number of students whose attendance was written",
+            example = "42"
+    )
+    private int markedCount;
+
+    @Schema(
+            description = "Number of students that aren't on the session's attendance list",
+            example = "1"
+    )
+    private int notEnrolledCount;
+
+    private List<AttendanceMarkResultDTO> results;
+}
@@ -0,0 +1,30 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "CheckInCodeDTO",
+        description = "Schema to hold the current check-in code of an open session"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckInCodeDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Code the students enter to check in",
+            example = "048213"
+    )
+    private String code;
+
+    @Schema(
+            description = "Instant the code is replaced by the next one, it is accepted for a little while longer",
+            example = "2024-03-18T09:00:10Z"
+    )
+    private String rotatesAt;
+}
@@ -0,0 +1,22 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Schema(
+        name = "CheckInDTO",
+        description = "Schema to hold the check-in of the authenticated student"
+)
+@Data
+public class CheckInDTO {
+
+    @NotEmpty(message = "Check-in code cannot be null or empty")
+    @Pattern(regexp = "^\\d{6}$", message = "Check-in code should be 6 digits")
+    @Schema(
+            description = "Check-in code shown by the lecturer",
+            example = "048213"
+    )
+    private String code;
+}
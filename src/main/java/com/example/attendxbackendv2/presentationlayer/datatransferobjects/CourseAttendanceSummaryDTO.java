@@ -0,0 +1,28 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(
+        name = "CourseAttendanceSummaryDTO",
+        description = "Schema to hold the attendance of a course over its started sessions"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CourseAttendanceSummaryDTO {
+
+    @Schema(
+            description = "Course code of the course",
+            example = "CSE101"
+    )
+    private String courseCode;
+
+    private List<SessionAttendanceCountDTO> sessions;
+
+    private List<StudentAttendanceSummaryDTO> students;
+}
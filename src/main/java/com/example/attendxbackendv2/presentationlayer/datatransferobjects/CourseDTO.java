@@ -67,6 +67,19 @@ public class CourseDTO {
     )
     private String departmentName;
 
+    @Positive(message = "Capacity should be a positive number")
+    @Schema(
+            description = "Stores the number of seats of the course, empty for a course without a limit",
+            example = "120"
+    )
+    private Integer capacity;
+
+    @Schema(
+            description = "Removes the seat limit of the course when set, an update without capacity keeps the limit",
+            example = "false"
+    )
+    private boolean removeCapacity;
+
     @Schema(
             description = "Stores the students enrolled in the course",
             implementation =  StudentDTO.class
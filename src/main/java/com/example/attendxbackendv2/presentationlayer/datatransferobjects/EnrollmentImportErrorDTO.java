@@ -0,0 +1,41 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentImportStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "EnrollmentImportErrorDTO",
+        description = "Schema to hold a row of an enrollment import that couldn't be applied"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentImportErrorDTO {
+
+    @Schema(
+            description = "Number of the row in the file, the header is row 1",
+            example = "214"
+    )
+    private long row;
+
+    @Schema(
+            description = "Course code of the row as uploaded",
+            example = "CSE101"
+    )
+    private String courseCode;
+
+    @Schema(
+            description = "Student number of the row as uploaded",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Why the row couldn't be applied",
+            example = "STUDENT_NOT_FOUND"
+    )
+    private EnrollmentImportStatus status;
+}
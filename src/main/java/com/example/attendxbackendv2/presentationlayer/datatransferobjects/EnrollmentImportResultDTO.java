@@ -0,0 +1,38 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(
+        name = "EnrollmentImportResultDTO",
+        description = "Schema to hold the outcome of an enrollment import: the counts and the rows that couldn't be applied"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentImportResultDTO {
+
+    @Schema(
+            description = "Number of students the import enrolled",
+            example = "1180"
+    )
+    private long enrolledCount;
+
+    @Schema(
+            description = "Number of rows whose student was already enrolled in the course",
+            example = "20"
+    )
+    private long alreadyEnrolledCount;
+
+    @Schema(
+            description = "Number of rows that couldn't be applied, errors lists the first of them",
+            example = "3"
+    )
+    private long errorCount;
+
+    private List<EnrollmentImportErrorDTO> errors;
+}
@@ -0,0 +1,41 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentTicketStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "EnrollmentTicketDTO",
+        description = "Schema to hold a queued enrollment request and its outcome"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentTicketDTO {
+
+    @Schema(
+            description = "Id of the ticket handed out when the request was queued",
+            example = "3f1c9a52-8d4e-4b7a-9c11-6e0f2d5b8a47"
+    )
+    private String ticketId;
+
+    @Schema(
+            description = "Course code of the request",
+            example = "CSE101"
+    )
+    private String courseCode;
+
+    @Schema(
+            description = "Student number of the request",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "QUEUED until the request is processed, then its outcome",
+            example = "ENROLLED"
+    )
+    private EnrollmentTicketStatus status;
+}
@@ -0,0 +1,38 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(
+        name = "LiveAttendanceEventDTO",
+        description = "Schema to hold one server-sent event of the live attendance of an open session"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LiveAttendanceEventDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Number of students that attended the session so far",
+            example = "38"
+    )
+    private int presentCount;
+
+    @Schema(
+            description = "Number of students on the session's roster",
+            example = "45"
+    )
+    private int rosterSize;
+
+    @Schema(
+            description = "Student numbers that checked in since the previous event",
+            example = "[\"22290012\", \"22290047\"]"
+    )
+    private List<String> checkedIn;
+}
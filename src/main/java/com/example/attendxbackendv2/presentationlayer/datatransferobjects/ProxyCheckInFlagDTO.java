@@ -0,0 +1,46 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "ProxyCheckInFlagDTO",
+        description = "Schema to hold a check-in that came from a device many students of the session checked in from"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProxyCheckInFlagDTO {
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Client address the check-in came from",
+            example = "10.4.12.37"
+    )
+    private String source;
+
+    @Schema(
+            description = "Number of different students checked in from the source within the detection window",
+            example = "4"
+    )
+    private int studentsFromSource;
+
+    @Schema(
+            description = "True if the check-in was rejected, false if it was accepted and only flagged",
+            example = "false"
+    )
+    private boolean rejected;
+
+    @Schema(
+            description = "Time of the check-in",
+            example = "2024-03-18T09:41:07.512Z"
+    )
+    private String flaggedAt;
+}
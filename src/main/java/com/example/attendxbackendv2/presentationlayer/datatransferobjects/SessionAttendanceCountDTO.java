@@ -0,0 +1,48 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "SessionAttendanceCountDTO",
+        description = "Schema to hold the attendance counts of one started session"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionAttendanceCountDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Date of the session",
+            example = "2024-03-18"
+    )
+    private String sessionDate;
+
+    @Schema(
+            description = "Lifecycle status of the session, the counts of an OPEN session can still change",
+            example = "CLOSED"
+    )
+    private String status;
+
+    @Schema(
+            description = "Number of students on the session's roster",
+            example = "45"
+    )
+    private int expectedCount;
+
+    @Schema(
+            description = "Number of students that attended the session, late arrivals included",
+            example = "38"
+    )
+    private int presentCount;
+
+    @Schema(
+            description = "Number of students that checked in after the late grace period",
+            example = "5"
+    )
+    private int lateCount;
+}
@@ -19,6 +19,13 @@ public class SessionDTO {
 
     private Long sessionId;
 
+    @Schema(
+            description = "Lifecycle status of the session, one of SCHEDULED, OPEN and CLOSED",
+            example = "OPEN",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private String status;
+
 //    @Schema(
 //            description = "Stores attendance of the students in the session",
 //            example =  "John Doe: true, Jane Doe: false, ..."
@@ -0,0 +1,44 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "StudentAttendanceSummaryDTO",
+        description = "Schema to hold the attendance of one student over the started sessions of a course"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StudentAttendanceSummaryDTO {
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    private String firstName;
+
+    private String lastName;
+
+    @Schema(
+            description = "Number of sessions the student was on the roster of",
+            example = "12"
+    )
+    private int expectedSessions;
+
+    @Schema(
+            description = "Number of sessions the student attended, late arrivals included",
+            example = "10"
+    )
+    private int attendedSessions;
+
+    @Schema(
+            description = "Number of sessions the student checked in to after the late grace period",
+            example = "2"
+    )
+    private int lateSessions;
+}
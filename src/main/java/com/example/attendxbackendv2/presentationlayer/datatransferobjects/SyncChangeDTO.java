@@ -0,0 +1,30 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "SyncChangeDTO",
+        description = "Schema to hold an attendance change made by a sync"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncChangeDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Attendance of the student after the sync",
+            example = "true"
+    )
+    private boolean present;
+}
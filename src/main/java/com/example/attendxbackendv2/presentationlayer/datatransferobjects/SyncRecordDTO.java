@@ -0,0 +1,57 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Schema(
+        name = "SyncRecordDTO",
+        description = "Schema to hold one attendance record taken offline on a classroom device"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncRecordDTO {
+
+    @NotNull(message = "Session id cannot be null")
+    private Long sessionId;
+
+    @NotEmpty(message = "Student id cannot be null or empty")
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Whether the student is present, defaults to true. Only overrides can mark a student absent",
+            example = "true"
+    )
+    private boolean present = true;
+
+    @Schema(
+            description = "True if the lecturer set the attendance on the device, false for a student's check-in",
+            example = "false"
+    )
+    private boolean override;
+
+    @NotNull(message = "Recorded at cannot be null")
+    @Schema(
+            description = "Time the record was taken on the device",
+            example = "2024-03-18T09:41:07Z"
+    )
+    private Instant recordedAt;
+
+    @AssertTrue(message = "Only an override can mark a student absent")
+    @JsonIgnore
+    public boolean isCheckInOrOverride() {
+        return present || override;
+    }
+}
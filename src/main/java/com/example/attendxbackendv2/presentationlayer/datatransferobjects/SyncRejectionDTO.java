@@ -0,0 +1,31 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceSyncStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "SyncRejectionDTO",
+        description = "Schema to hold a record of a sync that couldn't be applied"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncRejectionDTO {
+
+    private Long sessionId;
+
+    @Schema(
+            description = "Student number of the student",
+            example = "22290012"
+    )
+    private String studentId;
+
+    @Schema(
+            description = "Why the record was rejected",
+            example = "NOT_ENROLLED"
+    )
+    private AttendanceSyncStatus status;
+}
@@ -0,0 +1,40 @@
+package com.example.attendxbackendv2.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+        name = "TokenCacheStatsDTO",
+        description = "Schema to hold the statistics of the token cache"
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenCacheStatsDTO {
+
+    @Schema(
+            description = "Number of token lookups served from the cache",
+            example = "15420"
+    )
+    private long hitCount;
+
+    @Schema(
+            description = "Number of token lookups that went to the database",
+            example = "312"
+    )
+    private long missCount;
+
+    @Schema(
+            description = "Number of entries evicted because of size or expiry",
+            example = "40"
+    )
+    private long evictionCount;
+
+    @Schema(
+            description = "Approximate number of entries currently cached",
+            example = "280"
+    )
+    private long size;
+}
@@ -170,5 +170,58 @@ public class GlobalExceptionHandler  extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
     }
 
-}
+    @ExceptionHandler(InvalidCheckInCodeException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidCheckInCodeException(InvalidCheckInCodeException exception,
+                                                                              WebRequest webRequest){
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                webRequest.getDescription(false),
+                HttpStatus.BAD_REQUEST,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
 
+    @ExceptionHandler(CheckInBufferFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCheckInBufferFullException(CheckInBufferFullException exception,
+                                                                             WebRequest webRequest){
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                webRequest.getDescription(false),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(errorResponseDTO, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(EnrollmentQueueFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleEnrollmentQueueFullException(EnrollmentQueueFullException exception,
+                                                                               WebRequest webRequest){
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                webRequest.getDescription(false),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(errorResponseDTO, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ProxyCheckInRejectedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProxyCheckInRejectedException(ProxyCheckInRejectedException exception,
+                                                                                WebRequest webRequest){
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                webRequest.getDescription(false),
+                HttpStatus.TOO_MANY_REQUESTS,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()));
+        return new ResponseEntity<>(errorResponseDTO, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+}
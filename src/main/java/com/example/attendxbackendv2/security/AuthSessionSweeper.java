@@ -0,0 +1,36 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.datalayer.repositories.AuthSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Periodically removes expired rows from auth_session in bounded batches,
+ * keeping the token index small for the login lookups.
+ */
+@Component
+public class AuthSessionSweeper {
+
+    private final AuthSessionRepository authSessionRepository;
+    private final int batchSize;
+
+    @Autowired
+    public AuthSessionSweeper(AuthSessionRepository authSessionRepository,
+                              @Value("${attendx.auth.session-sweep-batch-size}") int batchSize) {
+        this.authSessionRepository = authSessionRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${attendx.auth.session-sweep-interval-ms}")
+    public void sweepExpiredSessions() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = authSessionRepository.deleteExpiredBatch(now, batchSize);
+        } while (deleted == batchSize);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.attendxbackendv2.security;
+
+import lombok.Value;
+
+/**
+ * Immutable view of the user behind an authorization token.
+ * It is resolved once per request by {@link TokenAuthenticationFilter} and read by the
+ * aspects, controllers and services instead of looking the token up again.
+ */
+@Value
+public class AuthenticatedPrincipal {
+
+    /**
+     * user_id of the authenticated user
+     */
+    Long userId;
+
+    /**
+     * Role of the user, one of the values in UserConfigConstants
+     */
+    String role;
+
+    String email;
+
+    /**
+     * Student number of the user, null if the user is not a student
+     */
+    String studentId;
+
+    public boolean hasRole(String roleValue) {
+        return role != null && role.equalsIgnoreCase(roleValue);
+    }
+}
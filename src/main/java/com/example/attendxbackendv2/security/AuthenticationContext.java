@@ -0,0 +1,53 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Request scoped holder of the {@link AuthenticatedPrincipal}.
+ * The principal is stored as a request attribute so it lives and dies with the request.
+ */
+public final class AuthenticationContext {
+
+    static final String PRINCIPAL_ATTRIBUTE = AuthenticationContext.class.getName() + ".PRINCIPAL";
+
+    private AuthenticationContext() {
+    }
+
+    static void setPrincipal(HttpServletRequest request, AuthenticatedPrincipal principal) {
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+    }
+
+    /**
+     * Returns the principal of the given request.
+     * @return the principal or empty if the request carries no valid token
+     */
+    public static Optional<AuthenticatedPrincipal> getPrincipal(HttpServletRequest request) {
+        return Optional.ofNullable((AuthenticatedPrincipal) request.getAttribute(PRINCIPAL_ATTRIBUTE));
+    }
+
+    /**
+     * Returns the principal of the current request.
+     * @return the principal or empty if the request carries no valid token
+     */
+    public static Optional<AuthenticatedPrincipal> getPrincipal() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((AuthenticatedPrincipal) attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /**
+     * Returns the principal of the current request.
+     * @return the principal of the current request
+     * @throws InvalidCredentialsException if the request carries no valid token
+     */
+    public static AuthenticatedPrincipal requirePrincipal() throws InvalidCredentialsException {
+        return getPrincipal().orElseThrow(() -> new InvalidCredentialsException("Invalid Token"));
+    }
+}
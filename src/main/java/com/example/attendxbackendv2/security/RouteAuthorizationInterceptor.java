@@ -0,0 +1,38 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Authorizes every request against the {@link RouteAuthorizationTable} before the controller is invoked.
+ * It runs inside the DispatcherServlet so rejected requests still get CORS headers and
+ * go through the GlobalExceptionHandler like any other InvalidCredentialsException.
+ */
+public class RouteAuthorizationInterceptor implements HandlerInterceptor {
+
+    private final RouteAuthorizationTable routeAuthorizationTable;
+
+    public RouteAuthorizationInterceptor(RouteAuthorizationTable routeAuthorizationTable) {
+        this.routeAuthorizationTable = routeAuthorizationTable;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        int requiredRoles = routeAuthorizationTable.requiredRoles(request.getMethod(), pattern);
+        if (requiredRoles == RouteAuthorizationTable.PUBLIC) {
+            return true;
+        }
+        AuthenticatedPrincipal principal = AuthenticationContext.getPrincipal(request).orElse(null);
+        if (principal == null || (RouteAuthorizationTable.roleBit(principal.getRole()) & requiredRoles) == 0) {
+            throw new InvalidCredentialsException("Invalid Token");
+        }
+        return true;
+    }
+}
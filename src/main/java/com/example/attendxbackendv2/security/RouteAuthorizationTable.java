@@ -0,0 +1,99 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.config.UserConfigConstants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps (HTTP method, request mapping pattern) to the bitmask of roles allowed to call it.
+ * The table is built once at startup and looked up with the pattern Spring MVC matched for the request,
+ * so every authorization decision is a single hash lookup and a bit test.
+ * Routes that aren't in the table are public.
+ */
+public final class RouteAuthorizationTable {
+
+    public static final int PUBLIC = 0;
+    public static final int EDITOR = 1;
+    public static final int LECTURER = 1 << 1;
+    public static final int STUDENT = 1 << 2;
+    public static final int ANY_ROLE = EDITOR | LECTURER | STUDENT;
+
+    private final Map<String, Integer> rules;
+
+    private RouteAuthorizationTable(Map<String, Integer> rules) {
+        this.rules = Collections.unmodifiableMap(new HashMap<>(rules));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param role role value of a user, see UserConfigConstants
+     * @return the bit of the role, 0 for unknown roles
+     */
+    public static int roleBit(String role) {
+        if (role == null) {
+            return 0;
+        }
+        return switch (role.toUpperCase()) {
+            case UserConfigConstants.EDITOR_ROLE_VALUE -> EDITOR;
+            case UserConfigConstants.LECTURER_ROLE_VALUE -> LECTURER;
+            case UserConfigConstants.STUDENT_ROLE_VALUE -> STUDENT;
+            default -> 0;
+        };
+    }
+
+    /**
+     * @param method HTTP method of the request
+     * @param pattern request mapping pattern that matched the request eg. /api/v1/course/{courseCode}
+     * @return the allowed roles bitmask or PUBLIC if the route isn't protected
+     */
+    public int requiredRoles(String method, String pattern) {
+        return rules.getOrDefault(key(method, pattern), PUBLIC);
+    }
+
+    /**
+     * @param method HTTP method of the request
+     * @param pattern request mapping pattern that matched the request
+     * @param role role of the caller, null for anonymous requests
+     * @return true if the caller may invoke the route
+     */
+    public boolean isAllowed(String method, String pattern, String role) {
+        int requiredRoles = requiredRoles(method, pattern);
+        return requiredRoles == PUBLIC || (requiredRoles & roleBit(role)) != 0;
+    }
+
+    /**
+     * @return every protected route as "METHOD pattern" -> allowed roles bitmask
+     */
+    public Map<String, Integer> getRules() {
+        return rules;
+    }
+
+    private static String key(String method, String pattern) {
+        return method + " " + pattern;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Integer> rules = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Allows the given roles to call the route, calling it twice for the same route widens the rule.
+         */
+        public Builder allow(int roles, String method, String pattern) {
+            rules.merge(key(method, pattern), roles, (current, added) -> current | added);
+            return this;
+        }
+
+        public RouteAuthorizationTable build() {
+            return new RouteAuthorizationTable(rules);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.attendxbackendv2.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import static com.example.attendxbackendv2.security.RouteAuthorizationTable.*;
+
+@Configuration
+public class SecurityConfig implements WebMvcConfigurer {
+
+    @Bean
+    public RouteAuthorizationTable routeAuthorizationTable() {
+        return buildRouteAuthorizationTable();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RouteAuthorizationInterceptor(routeAuthorizationTable()));
+    }
+
+    /**
+     * Every protected route of the application. Routes that aren't listed here are public.
+     */
+    static RouteAuthorizationTable buildRouteAuthorizationTable() {
+        return RouteAuthorizationTable.builder()
+                // Editors manage lecturers, editors and departments
+                .allow(EDITOR, "POST", "/api/v1/lecturer")
+                .allow(EDITOR, "GET", "/api/v1/lecturer")
+                .allow(EDITOR, "PUT", "/api/v1/lecturer")
+                .allow(EDITOR, "GET", "/api/v1/lecturer/{email}")
+                .allow(EDITOR, "DELETE", "/api/v1/lecturer/{email}")
+                .allow(EDITOR, "POST", "/api/v1/editor")
+                .allow(EDITOR, "GET", "/api/v1/editor")
+                .allow(EDITOR, "PUT", "/api/v1/editor")
+                .allow(EDITOR, "GET", "/api/v1/editor/{email}")
+                .allow(EDITOR, "DELETE", "/api/v1/editor/{email}")
+                .allow(EDITOR, "POST", "/api/v1/department")
+                .allow(EDITOR, "PUT", "/api/v1/department")
+                .allow(EDITOR, "GET", "/api/v1/login/cache-stats")
+                // Students are created by editors, lecturers can read and update them
+                .allow(EDITOR, "POST", "/api/v1/student")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/student")
+                .allow(EDITOR | LECTURER, "PUT", "/api/v1/student")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/student/{email}")
+                .allow(EDITOR | LECTURER, "DELETE", "/api/v1/student/{email}")
+                // Courses
+                .allow(EDITOR, "POST", "/api/v1/course")
+                .allow(EDITOR | LECTURER, "PUT", "/api/v1/course")
+                .allow(ANY_ROLE, "GET", "/api/v1/course")
+                .allow(ANY_ROLE, "GET", "/api/v1/course/{courseCode}")
+                .allow(STUDENT, "PATCH", "/api/v1/course")
+                .allow(STUDENT, "GET", "/api/v1/course/enrollment-tickets/{ticketId}")
+                .allow(STUDENT, "GET", "/api/v1/course/enrollment-tickets/{ticketId}/events")
+                .allow(EDITOR, "POST", "/api/v1/course/enrollments")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/course/{courseCode}/attendance")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/course/{courseCode}/students")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/course/{courseCode}/sessions")
+                // Sessions, students check in themselves only with the rotating code
+                .allow(EDITOR | LECTURER, "PATCH", "/api/v1/session")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/session/{sessionId}/check-in-code")
+                .allow(STUDENT, "POST", "/api/v1/session/{sessionId}/check-in")
+                .allow(EDITOR | LECTURER, "POST", "/api/v1/session/{sessionId}/attendance")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/session/{sessionId}/attendance/events")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/session/{sessionId}/live")
+                .allow(EDITOR | LECTURER, "POST", "/api/v1/session/{sessionId}/close")
+                .allow(EDITOR | LECTURER, "POST", "/api/v1/session/attendance/sync")
+                .allow(EDITOR | LECTURER, "GET", "/api/v1/session/{sessionId}/proxy-flags")
+                .build();
+    }
+}
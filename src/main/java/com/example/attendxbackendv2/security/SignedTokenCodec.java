@@ -0,0 +1,135 @@
+package com.example.attendxbackendv2.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless access tokens.
+ * A token is {@code base64url(payload).base64url(HMAC-SHA256(payload))} where the payload is
+ * {@code userId|role|studentId|expiresAtEpochSecond|email}. Verification needs no database access.
+ */
+@Component
+public class SignedTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final byte[] secret;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    /**
+     * Mac instances aren't thread safe, each request thread keeps its own initialized copy
+     */
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    @Autowired
+    public SignedTokenCodec(@Value("${attendx.auth.signing-secret}") String secret,
+                            @Value("${attendx.auth.signed-token-ttl-seconds}") long timeToLiveSeconds) {
+        this(secret, Duration.ofSeconds(timeToLiveSeconds), Clock.systemUTC());
+    }
+
+    SignedTokenCodec(String secret, Duration timeToLive, Clock clock) {
+        this.secret = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if a signing secret is configured
+     */
+    public boolean isConfigured() {
+        return secret.length > 0;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Issues a token for the principal that expires after the configured time to live.
+     * @param principal the principal to embed in the token
+     * @return the signed token
+     */
+    public String issue(AuthenticatedPrincipal principal) {
+        long expiresAt = clock.instant().plus(timeToLive).getEpochSecond();
+        String payload = principal.getUserId() + SEPARATOR
+                + principal.getRole() + SEPARATOR
+                + (principal.getStudentId() == null ? "" : principal.getStudentId()) + SEPARATOR
+                + expiresAt + SEPARATOR
+                + principal.getEmail();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Verifies the signature and expiry of the token.
+     * @param token the token sent by the client
+     * @return the embedded principal, or empty if the token is malformed, forged or expired
+     */
+    public Optional<AuthenticatedPrincipal> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return Optional.empty();
+        }
+
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 5);
+        if (fields.length != 5) {
+            return Optional.empty();
+        }
+        try {
+            if (Long.parseLong(fields[3]) <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedPrincipal(
+                    Long.parseLong(fields[0]),
+                    fields[1],
+                    fields[4],
+                    fields[2].isEmpty() ? null : fields[2]));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("attendx.auth.signing-secret is not configured");
+        }
+        return mac.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(new SecretKeySpec(secret, ALGORITHM));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Couldn't initialize " + ALGORITHM, e);
+        }
+    }
+}
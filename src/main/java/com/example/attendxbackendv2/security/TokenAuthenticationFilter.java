@@ -0,0 +1,38 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the Authorization header into an {@link AuthenticatedPrincipal} once per request.
+ * It doesn't reject anything by itself, authorization is left to the RouteAuthorizationInterceptor.
+ */
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private final LoginService loginService;
+
+    @Autowired
+    public TokenAuthenticationFilter(LoginService loginService) {
+        this.loginService = loginService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader("Authorization");
+        if (token != null) {
+            loginService.authenticate(token)
+                    .ifPresent(principal -> AuthenticationContext.setPrincipal(request, principal));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.attendxbackendv2.security;
+
+/**
+ * Kind of the access tokens issued at login, see attendx.auth.token-mode
+ */
+public enum TokenMode {
+    /**
+     * Random UUID stored in the database, every verification needs a lookup (or a cache hit)
+     */
+    UUID,
+    /**
+     * HMAC signed expiring token carrying the principal, verified with CPU only
+     */
+    SIGNED
+}
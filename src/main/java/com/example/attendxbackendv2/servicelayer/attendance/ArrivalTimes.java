@@ -0,0 +1,99 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceClassification;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Check-in times of the students of one session as whole seconds after the session was opened, indexed by roster ordinal.
+ * The persisted form holds four big endian bytes per ordinal with the seconds plus one, 0 for a student without
+ * a check-in time, and ends with the last ordinal that has one. Attendance is classified from it on read,
+ * so changing the grace period reclassifies every session.
+ */
+public final class ArrivalTimes {
+
+    private static final int BYTES_PER_ORDINAL = Integer.BYTES;
+
+    /**
+     * Seconds after opening plus one, 0 for no check-in time
+     */
+    private int[] offsets;
+
+    private ArrivalTimes(int[] offsets) {
+        this.offsets = offsets;
+    }
+
+    /**
+     * @param bytes persisted check-in times, null is read as no check-in times
+     */
+    public static ArrivalTimes of(byte[] bytes) {
+        if (bytes == null) {
+            return new ArrivalTimes(new int[0]);
+        }
+        int[] offsets = new int[bytes.length / BYTES_PER_ORDINAL];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(offsets);
+        return new ArrivalTimes(offsets);
+    }
+
+    /**
+     * Records the check-in time of the student unless one is recorded already, a later check-in doesn't move the arrival.
+     * Check-ins taken before the opening on a device with a skewed clock count as on time.
+     */
+    public void record(int ordinal, Instant openedAt, Instant checkedInAt) {
+        if (ordinal < offsets.length && offsets[ordinal] != 0) {
+            return;
+        }
+        if (ordinal >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(ordinal + 1, offsets.length * 2));
+        }
+        long seconds = Math.max(Duration.between(openedAt, checkedInAt).toSeconds(), 0);
+        offsets[ordinal] = (int) Math.min(seconds + 1, Integer.MAX_VALUE);
+    }
+
+    public void clear(int ordinal) {
+        if (ordinal < offsets.length) {
+            offsets[ordinal] = 0;
+        }
+    }
+
+    /**
+     * @return the check-in time of the student, empty if none is recorded
+     */
+    public Optional<Instant> checkedInAt(int ordinal, Instant openedAt) {
+        if (ordinal >= offsets.length || offsets[ordinal] == 0 || openedAt == null) {
+            return Optional.empty();
+        }
+        return Optional.of(openedAt.plusSeconds(offsets[ordinal] - 1L));
+    }
+
+    /**
+     * A present student without a check-in time was marked present by a lecturer and is never late.
+     * @param lateAfter grace period after the opening in which a check-in is on time
+     */
+    public AttendanceClassification classify(int ordinal, boolean present, Duration lateAfter) {
+        if (!present) {
+            return AttendanceClassification.ABSENT;
+        }
+        if (ordinal < offsets.length && offsets[ordinal] - 1L > lateAfter.toSeconds()) {
+            return AttendanceClassification.LATE;
+        }
+        return AttendanceClassification.PRESENT;
+    }
+
+    /**
+     * @return the persisted form, empty if no check-in time is recorded
+     */
+    public byte[] toByteArray() {
+        int length = offsets.length;
+        while (length > 0 && offsets[length - 1] == 0) {
+            length--;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length * BYTES_PER_ORDINAL);
+        bytes.asIntBuffer().put(offsets, 0, length);
+        return bytes.array();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Set of students of one session indexed by their roster ordinal within the course, see CourseRosterEntity.
+ * The persisted form is the little endian byte array of {@link BitSet}, bit n is bit (n % 8) of byte (n / 8),
+ * padded with zero bytes to the roster length so SQL can decode the bit of an ordinal in place.
+ */
+public final class AttendanceBitmap {
+
+    private final BitSet bits;
+
+    public AttendanceBitmap() {
+        this.bits = new BitSet();
+    }
+
+    private AttendanceBitmap(BitSet bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @param bytes persisted bitmap, null is read as an empty bitmap
+     */
+    public static AttendanceBitmap of(byte[] bytes) {
+        return new AttendanceBitmap(bytes == null ? new BitSet() : BitSet.valueOf(bytes));
+    }
+
+    /**
+     * @return number of bytes needed to hold the ordinals 0 .. rosterSize - 1
+     */
+    public static int byteLength(int rosterSize) {
+        return (rosterSize + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    public void set(int ordinal) {
+        bits.set(ordinal);
+    }
+
+    public void clear(int ordinal) {
+        bits.clear(ordinal);
+    }
+
+    public boolean contains(int ordinal) {
+        return bits.get(ordinal);
+    }
+
+    /**
+     * @return number of students in the bitmap
+     */
+    public int count() {
+        return bits.cardinality();
+    }
+
+    public AttendanceBitmap and(AttendanceBitmap other) {
+        BitSet result = (BitSet) bits.clone();
+        result.and(other.bits);
+        return new AttendanceBitmap(result);
+    }
+
+    /**
+     * @return the ordinals in the bitmap in ascending order
+     */
+    public IntStream ordinals() {
+        return bits.stream();
+    }
+
+    /**
+     * @param length minimum length of the result, shorter arrays are padded with zero bytes
+     * @return the persisted form of the bitmap
+     */
+    public byte[] toByteArray(int length) {
+        byte[] bytes = bits.toByteArray();
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, 0, bytes.length);
+        return padded;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.entities.AttendanceEventType;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.AttendanceEvent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.LoggedEvent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionBitmaps;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionCourse;
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceMarkStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes attendance to the append-only event log and keeps the session attendance bitmaps as snapshots of it.
+ * Writers only insert events, the current attendance of a session is its snapshot with the later events replayed.
+ * Snapshots are taken by the AttendanceSnapshotter and when a session is closed, with the session row locked.
+ * Writers hold a shared lock on the session row while they append, so a snapshot never passes over an event
+ * that took a lower id but commits after it.
+ * <p>
+ * Every snapshot also holds the check-in times: a check-in records the student's arrival, a correction
+ * that marks the student present drops it, so the lecturer's word isn't classified late, and a revoke clears both.
+ */
+@Component
+public class AttendanceBitmapStore {
+
+    /**
+     * Attendance of a session with the events after its snapshot replayed
+     */
+    public record CurrentAttendance(AttendanceBitmap attendance, ArrivalTimes arrivals) {
+    }
+
+    /**
+     * A student's check-in as it was received
+     * @param requestId idempotency key of the check-in, may be null
+     * @param checkedInAt when the request was received, not when it is written
+     */
+    public record CheckIn(String requestId, Instant checkedInAt) {
+    }
+
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+
+    @Autowired
+    public AttendanceBitmapStore(AttendanceJdbcRepository attendanceJdbcRepository) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+    }
+
+    /**
+     * Appends a check-in of every student as one batch, students that aren't on the session's roster are skipped.
+     * @param checkIns student number -> check-in of the student
+     * @return number of students on the roster, 0 if the session doesn't exist
+     */
+    @Transactional
+    public int markAttended(Long sessionId, Map<String, CheckIn> checkIns) {
+        if (!attendanceJdbcRepository.lockSessionForEvents(sessionId)) {
+            return 0;
+        }
+        Map<String, Integer> ordinals = attendanceJdbcRepository.findRosterOrdinals(sessionId, checkIns.keySet());
+        if (ordinals.isEmpty()) {
+            return 0;
+        }
+        List<AttendanceEvent> events = new ArrayList<>(ordinals.size());
+        ordinals.forEach((studentId, ordinal) -> {
+            CheckIn checkIn = checkIns.get(studentId);
+            events.add(new AttendanceEvent(sessionId, ordinal, AttendanceEventType.CHECK_IN, null,
+                    checkIn.checkedInAt(), checkIn.requestId()));
+        });
+        attendanceJdbcRepository.appendEvents(events);
+        return events.size();
+    }
+
+    /**
+     * Appends a correction or revoke of every student as one batch.
+     * @param marks student number -> present
+     * @param recordedBy user id of the lecturer or editor
+     * @return the outcome of every student in the order of the marks, empty if the session doesn't exist
+     */
+    @Transactional
+    public Optional<Map<String, AttendanceMarkStatus>> applyMarks(Long sessionId, Map<String, Boolean> marks,
+                                                                  Long recordedBy) {
+        if (!attendanceJdbcRepository.lockSessionForEvents(sessionId)) {
+            return Optional.empty();
+        }
+        Optional<SessionBitmaps> stored = attendanceJdbcRepository.findSessionBitmaps(sessionId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        AttendanceBitmap roster = AttendanceBitmap.of(stored.get().roster());
+        Map<String, Integer> ordinals = roster.count() == 0
+                ? Map.of()
+                : attendanceJdbcRepository.findRosterOrdinals(sessionId, marks.keySet());
+
+        Instant recordedAt = Instant.now();
+        List<AttendanceEvent> events = new ArrayList<>();
+        Map<String, AttendanceMarkStatus> statuses = new LinkedHashMap<>();
+        marks.forEach((studentId, present) -> {
+            Integer ordinal = ordinals.get(studentId);
+            if (ordinal == null || !roster.contains(ordinal)) {
+                statuses.put(studentId, AttendanceMarkStatus.NOT_ENROLLED);
+                return;
+            }
+            events.add(new AttendanceEvent(sessionId, ordinal, AttendanceEventType.ofMark(present), recordedBy,
+                    recordedAt, null));
+            statuses.put(studentId, AttendanceMarkStatus.MARKED);
+        });
+        if (!events.isEmpty()) {
+            attendanceJdbcRepository.appendEvents(events);
+        }
+        return Optional.of(statuses);
+    }
+
+    /**
+     * Gives the next chunk of enrolled students without a roster ordinal the next free ordinals of the course.
+     * Every chunk commits on its own, so starting a session of a large course never holds one big transaction.
+     * Ordinals are never reused, one that stays assigned after the session start failed is kept for the student.
+     * @return number of students that got an ordinal, 0 once every enrolled student has one
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int assignRosterOrdinals(Long courseId) {
+        return attendanceJdbcRepository.assignRosterOrdinals(courseId, attendanceJdbcRepository.lockNextOrdinal(courseId));
+    }
+
+    /**
+     * @return the snapshot of the session with the events after it replayed
+     */
+    public CurrentAttendance currentAttendance(SessionBitmaps stored) {
+        return replay(stored, attendanceJdbcRepository.findSessionEventsAfter(stored.sessionId(), stored.snapshotEventId()));
+    }
+
+    /**
+     * Reads the started sessions of the course with one query for their snapshots and one for the events after them.
+     * @return the sessions ordered by date with their current attendance and check-in times in place of the snapshot
+     */
+    public List<SessionBitmaps> findCurrentCourseAttendance(Long courseId) {
+        List<SessionBitmaps> sessions = attendanceJdbcRepository.findCourseSessionBitmaps(courseId);
+        long oldestSnapshot = sessions.stream().mapToLong(SessionBitmaps::snapshotEventId).min().orElse(0);
+        Map<Long, List<LoggedEvent>> tails = new HashMap<>();
+        for (LoggedEvent event : attendanceJdbcRepository.findCourseEventsAfter(courseId, oldestSnapshot)) {
+            tails.computeIfAbsent(event.sessionId(), id -> new ArrayList<>()).add(event);
+        }
+        return sessions.stream().map(stored -> {
+            List<LoggedEvent> tail = tails.getOrDefault(stored.sessionId(), List.of()).stream()
+                    .filter(event -> event.eventId() > stored.snapshotEventId())
+                    .toList();
+            if (tail.isEmpty()) {
+                return stored;
+            }
+            CurrentAttendance current = replay(stored, tail);
+            return new SessionBitmaps(stored.sessionId(), stored.sessionDate(), stored.roster(),
+                    current.attendance().toByteArray(stored.roster().length), current.arrivals().toByteArray(),
+                    stored.openedAt(), stored.status(), tail.get(tail.size() - 1).eventId());
+        }).toList();
+    }
+
+    /**
+     * Folds the events appended since the last snapshot into the session's attendance bitmap.
+     * @return false if the session doesn't exist
+     */
+    @Transactional
+    public boolean snapshot(Long sessionId) {
+        Optional<SessionBitmaps> stored = attendanceJdbcRepository.lockSessionBitmaps(sessionId);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        List<LoggedEvent> tail = attendanceJdbcRepository.findSessionEventsAfter(sessionId, stored.get().snapshotEventId());
+        if (tail.isEmpty() || stored.get().roster() == null) {
+            return true;
+        }
+        CurrentAttendance current = replay(stored.get(), tail);
+        attendanceJdbcRepository.updateSnapshot(sessionId, current.attendance().toByteArray(stored.get().roster().length),
+                current.arrivals().toByteArray(), tail.get(tail.size() - 1).eventId());
+        return true;
+    }
+
+    /**
+     * Closes the session with a final snapshot of the event log. The attendance held in memory isn't merged in,
+     * a revoke that committed before the row was locked may not have reached it yet. Check-ins still in the
+     * CheckInBuffer are appended after the close and replayed on top of the final snapshot like any later event.
+     * Attendance outside the roster is dropped so the closed session keeps only its compact final bitmap.
+     * @return false if the session doesn't exist
+     */
+    @Transactional
+    public boolean finalizeSession(Long sessionId, Instant closedAt) {
+        Optional<SessionBitmaps> stored = attendanceJdbcRepository.lockSessionBitmaps(sessionId);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        byte[] finalAttendance = null;
+        byte[] finalArrivals = null;
+        long snapshotEventId = stored.get().snapshotEventId();
+        if (stored.get().roster() != null) {
+            List<LoggedEvent> tail = attendanceJdbcRepository.findSessionEventsAfter(sessionId, snapshotEventId);
+            CurrentAttendance current = replay(stored.get(), tail);
+            finalArrivals = current.arrivals().toByteArray();
+            if (!tail.isEmpty()) {
+                snapshotEventId = tail.get(tail.size() - 1).eventId();
+            }
+            finalAttendance = current.attendance().and(AttendanceBitmap.of(stored.get().roster()))
+                    .toByteArray(stored.get().roster().length);
+        }
+        attendanceJdbcRepository.closeSession(sessionId, finalAttendance, finalArrivals, snapshotEventId, closedAt);
+        return true;
+    }
+
+    /**
+     * Moves the attendance the session recorded before the bitmaps, one row per expected student in
+     * session_entity_attendance, into its roster and attendance bitmaps, closes the session and deletes the rows.
+     * Expected students without a roster ordinal get the next free ordinals of the course.
+     * @return false if the session doesn't exist
+     */
+    @Transactional
+    public boolean backfillLegacySession(Long sessionId) {
+        Optional<SessionBitmaps> stored = attendanceJdbcRepository.lockSessionBitmaps(sessionId);
+        Optional<Long> courseId = attendanceJdbcRepository.findSessionCourse(sessionId).map(SessionCourse::courseId);
+        if (stored.isEmpty() || courseId.isEmpty()) {
+            return false;
+        }
+        if (stored.get().roster() != null) {
+            // started again after the bitmaps were introduced, the legacy rows are stale
+            attendanceJdbcRepository.replaceLegacyAttendance(sessionId, stored.get().roster(), stored.get().attendance(),
+                    Instant.now());
+            return true;
+        }
+        int nextOrdinal = attendanceJdbcRepository.lockNextOrdinal(courseId.get());
+        attendanceJdbcRepository.assignLegacyRosterOrdinals(sessionId, courseId.get(), nextOrdinal);
+        AttendanceBitmap roster = new AttendanceBitmap();
+        AttendanceBitmap attendance = new AttendanceBitmap();
+        attendanceJdbcRepository.findLegacyAttendance(sessionId, courseId.get(), (attended, ordinal) -> {
+            roster.set(ordinal);
+            if (attended) {
+                attendance.set(ordinal);
+            }
+        });
+        int length = AttendanceBitmap.byteLength(attendanceJdbcRepository.findNextOrdinal(courseId.get()));
+        attendanceJdbcRepository.replaceLegacyAttendance(sessionId, roster.toByteArray(length),
+                attendance.toByteArray(length), Instant.now());
+        return true;
+    }
+
+    private static CurrentAttendance replay(SessionBitmaps stored, List<LoggedEvent> events) {
+        AttendanceBitmap attendance = AttendanceBitmap.of(stored.attendance());
+        ArrivalTimes arrivals = ArrivalTimes.of(stored.arrivals());
+        for (LoggedEvent event : events) {
+            if (event.type().isPresent()) {
+                attendance.set(event.ordinal());
+            } else {
+                attendance.clear(event.ordinal());
+            }
+            if (event.type() == AttendanceEventType.CHECK_IN && stored.openedAt() != null) {
+                arrivals.record(event.ordinal(), stored.openedAt(), event.recordedAt());
+            } else if (event.type() != AttendanceEventType.CHECK_IN) {
+                arrivals.clear(event.ordinal());
+            }
+        }
+        return new CurrentAttendance(attendance, arrivals);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a report straight to the response as it is read from the database. The stream is
+ * flushed but not closed, the caller owns it and any compression wrapped around it.
+ */
+@FunctionalInterface
+public interface AttendanceReportWriter {
+
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,57 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Periodically folds the attendance event log into the session snapshots, so replaying the tail stays short.
+ * Only sessions with events after the last run are visited, found through the event id index. The first run starts
+ * after the highest event id a session was snapshotted up to, so a restart doesn't rescan the whole log.
+ * A session whose events the runs skip is still replayed on reads and folded in when it is closed.
+ */
+@Slf4j
+@Component
+public class AttendanceSnapshotter {
+
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+    private final AttendanceBitmapStore attendanceBitmapStore;
+    /**
+     * Highest event id every session was snapshotted up to, -1 until it is read from the database,
+     * only touched by the scheduler thread
+     */
+    private long snapshottedEventId = -1;
+
+    @Autowired
+    public AttendanceSnapshotter(AttendanceJdbcRepository attendanceJdbcRepository,
+                                 AttendanceBitmapStore attendanceBitmapStore) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+        this.attendanceBitmapStore = attendanceBitmapStore;
+    }
+
+    @Scheduled(fixedDelayString = "${attendx.attendance.event-log.snapshot-interval-ms}")
+    public void snapshotSessions() {
+        if (snapshottedEventId < 0) {
+            snapshottedEventId = attendanceJdbcRepository.findSnapshottedEventId();
+        }
+        Map<Long, Long> lastEventIds = attendanceJdbcRepository.findSessionsWithEventsAfter(snapshottedEventId);
+        boolean failed = false;
+        for (Long sessionId : lastEventIds.keySet()) {
+            try {
+                attendanceBitmapStore.snapshot(sessionId);
+            } catch (RuntimeException e) {
+                // the sessions are visited again with the next run, snapshots are idempotent
+                failed = true;
+                log.error("Couldn't snapshot the attendance of session {}", sessionId, e);
+            }
+        }
+        if (!failed && !lastEventIds.isEmpty()) {
+            snapshottedEventId = Collections.max(lastEventIds.values());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.entities.AttendanceEventType;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.AttendanceEvent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.LatestEvent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionBitmaps;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionCourse;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceSyncResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SyncChangeDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SyncRecordDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SyncRejectionDTO;
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceSyncStatus;
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resolves attendance records taken offline on classroom devices against the event log.
+ * The record of a student that ranks highest wins, where a lecturer's change ranks above any check-in and
+ * otherwise the later record ranks higher. Records are resolved with a few queries per session and only the
+ * winners that change the stored attendance are appended, as one batch. Uploading the same records again changes nothing.
+ */
+@Component
+public class AttendanceSyncResolver {
+
+    /**
+     * How far a device's clock may run ahead of the server's
+     */
+    static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private record Rank(boolean override, Instant recordedAt) implements Comparable<Rank> {
+
+        private static final Comparator<Rank> ORDER = Comparator.comparing(Rank::override).thenComparing(Rank::recordedAt);
+
+        static Rank of(SyncRecordDTO record) {
+            return new Rank(record.isOverride(), record.getRecordedAt());
+        }
+
+        static Rank of(LatestEvent event) {
+            return new Rank(event.type() != AttendanceEventType.CHECK_IN, event.recordedAt());
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+
+    @Autowired
+    public AttendanceSyncResolver(AttendanceJdbcRepository attendanceJdbcRepository) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+    }
+
+    /**
+     * Resolves the records, locking the row of every session they touch so concurrent syncs of a session resolve one after the other.
+     * @param principal the lecturer or editor uploading the records, a lecturer only of the sessions of their own courses
+     * @return the students whose attendance changed, the rejected records and the counts of the rest
+     * @throws InvalidCredentialsException if a lecturer uploads records of another lecturer's session, nothing is applied then
+     */
+    @Transactional
+    public AttendanceSyncResultDTO resolve(List<SyncRecordDTO> records, AuthenticatedPrincipal principal) {
+        Long recordedBy = principal.getUserId();
+        Instant latestAccepted = Instant.now().plus(CLOCK_SKEW);
+        List<SyncRejectionDTO> rejections = new ArrayList<>();
+        Map<Long, Map<String, SyncRecordDTO>> winners = new LinkedHashMap<>();
+        for (SyncRecordDTO record : records) {
+            if (record.getRecordedAt().isAfter(latestAccepted)) {
+                rejections.add(new SyncRejectionDTO(record.getSessionId(), record.getStudentId(),
+                        AttendanceSyncStatus.FUTURE_TIMESTAMP));
+                continue;
+            }
+            winners.computeIfAbsent(record.getSessionId(), id -> new LinkedHashMap<>()).merge(record.getStudentId(), record,
+                    (kept, incoming) -> Rank.of(incoming).compareTo(Rank.of(kept)) > 0 ? incoming : kept);
+        }
+        int staleCount = records.size() - rejections.size()
+                - winners.values().stream().mapToInt(Map::size).sum();
+        int unchangedCount = 0;
+
+        List<AttendanceEvent> events = new ArrayList<>();
+        List<SyncChangeDTO> changes = new ArrayList<>();
+        for (Map.Entry<Long, Map<String, SyncRecordDTO>> session : winners.entrySet()) {
+            Long sessionId = session.getKey();
+            Optional<SessionBitmaps> stored = attendanceJdbcRepository.lockSessionBitmaps(sessionId);
+            if (stored.isEmpty() || stored.get().roster() == null) {
+                AttendanceSyncStatus status = stored.isEmpty()
+                        ? AttendanceSyncStatus.SESSION_NOT_FOUND
+                        : AttendanceSyncStatus.SESSION_NOT_STARTED;
+                session.getValue().keySet().forEach(studentId ->
+                        rejections.add(new SyncRejectionDTO(sessionId, studentId, status)));
+                continue;
+            }
+            if (principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE) && !Objects.equals(
+                    attendanceJdbcRepository.findSessionCourse(sessionId).map(SessionCourse::lecturerId).orElse(null),
+                    principal.getUserId())) {
+                throw new InvalidCredentialsException("Invalid Token");
+            }
+            Map<String, Integer> ordinals = attendanceJdbcRepository.findRosterOrdinals(sessionId, session.getValue().keySet());
+            Map<Integer, LatestEvent> latestEvents = ordinals.isEmpty()
+                    ? Map.of()
+                    : attendanceJdbcRepository.findLatestEvents(sessionId, ordinals.values());
+            AttendanceBitmap snapshot = AttendanceBitmap.of(stored.get().attendance());
+
+            for (SyncRecordDTO record : session.getValue().values()) {
+                Integer ordinal = ordinals.get(record.getStudentId());
+                if (ordinal == null) {
+                    rejections.add(new SyncRejectionDTO(sessionId, record.getStudentId(), AttendanceSyncStatus.NOT_ENROLLED));
+                    continue;
+                }
+                LatestEvent latest = latestEvents.get(ordinal);
+                if (latest != null && Rank.of(record).compareTo(Rank.of(latest)) <= 0) {
+                    staleCount++;
+                    continue;
+                }
+                boolean present = latest == null ? snapshot.contains(ordinal) : latest.type().isPresent();
+                boolean changed = present != record.isPresent();
+                // an override that matches the attendance is still kept, so older check-ins can't win over it later
+                boolean overridesCheckIn = record.isOverride() && (latest == null || latest.type() == AttendanceEventType.CHECK_IN);
+                if (changed || overridesCheckIn) {
+                    events.add(new AttendanceEvent(sessionId, ordinal,
+                            record.isOverride() ? AttendanceEventType.ofMark(record.isPresent()) : AttendanceEventType.CHECK_IN,
+                            record.isOverride() ? recordedBy : null, record.getRecordedAt(), null));
+                }
+                if (changed) {
+                    changes.add(new SyncChangeDTO(sessionId, record.getStudentId(), record.isPresent()));
+                } else {
+                    unchangedCount++;
+                }
+            }
+        }
+        if (!events.isEmpty()) {
+            attendanceJdbcRepository.appendEvents(events);
+        }
+        return new AttendanceSyncResultDTO(changes.size(), unchangedCount, staleCount, changes, rejections);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceBitmapStore.CheckIn;
+import com.example.attendxbackendv2.servicelayer.exceptions.CheckInBufferFullException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for student check-ins in {@link CheckInMode#BUFFERED} mode.
+ * Check-ins are accepted into a bounded queue and a single flusher thread drains it every
+ * flush interval, or as soon as a full batch is waiting, grouping the check-ins by session
+ * so each session's check-ins are appended to the event log with one insert per flush. A full queue rejects new check-ins
+ * instead of growing, and the remaining check-ins are flushed when the application shuts down.
+ * <p>
+ * A session's check-ins that fail to flush are retried before anything new is taken from the queue, so a failing database
+ * fills the queue and turns new check-ins away instead of losing acknowledged ones. Check-ins that still fail after
+ * {@link #MAX_FLUSH_ATTEMPTS} flushes are logged one by one, with their request id, and dropped.
+ * Acknowledged check-ins are held in memory only, a crash loses at most one buffer's worth.
+ * Students that aren't on the session's roster are skipped by the insert.
+ */
+@Slf4j
+@Component
+public class CheckInBuffer {
+
+    /**
+     * @param requestId idempotency key of the check-in, may be null
+     * @param checkedInAt when the check-in was accepted, the time that is written
+     * @param failedFlushes number of flushes of the check-in that failed so far
+     */
+    record PendingCheckIn(Long sessionId, String studentId, String requestId, Instant checkedInAt, int failedFlushes) {
+
+        PendingCheckIn failed() {
+            return new PendingCheckIn(sessionId, studentId, requestId, checkedInAt, failedFlushes + 1);
+        }
+    }
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Flushes a check-in is tried in before it is dropped, one flush interval apart
+     */
+    static final int MAX_FLUSH_ATTEMPTS = 5;
+
+    private final AttendanceBitmapStore attendanceBitmapStore;
+    private final boolean enabled;
+    private final int capacity;
+    private final int flushBatchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<PendingCheckIn> pending;
+
+    private final AtomicLong flushedCheckIns = new AtomicLong();
+    private final AtomicLong failedCheckIns = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+    /**
+     * Check-ins of the last flush that failed, only touched by the flusher, or by stop() once the flusher exited
+     */
+    private List<PendingCheckIn> retrying = new ArrayList<>();
+
+    @Autowired
+    public CheckInBuffer(AttendanceBitmapStore attendanceBitmapStore,
+                         @Value("${attendx.attendance.check-in-mode}") CheckInMode mode,
+                         @Value("${attendx.attendance.check-in-buffer.capacity}") int capacity,
+                         @Value("${attendx.attendance.check-in-buffer.flush-batch-size}") int flushBatchSize,
+                         @Value("${attendx.attendance.check-in-buffer.flush-interval-ms}") long flushIntervalMs) {
+        this.attendanceBitmapStore = attendanceBitmapStore;
+        this.enabled = mode == CheckInMode.BUFFERED;
+        this.capacity = capacity;
+        this.flushBatchSize = flushBatchSize;
+        this.flushIntervalNanos = Duration.ofMillis(flushIntervalMs).toNanos();
+        this.pending = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+    }
+
+    /**
+     * Starts the flusher in {@link CheckInMode#BUFFERED} mode, check-ins aren't buffered in any other.
+     */
+    @PostConstruct
+    public void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "check-in-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * @return true if check-ins should go through the buffer
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a check-in to be written with the next flush, recorded at the time it was accepted.
+     * @param requestId idempotency key of the check-in, may be null
+     * @throws CheckInBufferFullException if the buffer is full, the caller should retry later
+     */
+    public void submit(Long sessionId, String studentId, String requestId) {
+        if (!pending.offer(new PendingCheckIn(sessionId, studentId, requestId, Instant.now(), 0))) {
+            throw new CheckInBufferFullException(capacity);
+        }
+        if (pending.size() >= flushBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCheckIns.get();
+    }
+
+    public long getFailedCount() {
+        return failedCheckIns.get();
+    }
+
+    private void runFlusher() {
+        while (running) {
+            // failed check-ins are retried a flush interval apart
+            if (!retrying.isEmpty() || pending.size() < flushBatchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flushBatch();
+        }
+        while (flushBatch() > 0) {
+            // drain what is still buffered once stopped
+        }
+    }
+
+    /**
+     * Retries the check-ins whose last flush failed, or writes up to one batch of pending check-ins if there are none.
+     * @return number of check-ins written, retried or taken from the buffer
+     */
+    int flushBatch() {
+        List<PendingCheckIn> batch = retrying;
+        retrying = new ArrayList<>();
+        if (batch.isEmpty()) {
+            pending.drainTo(batch, flushBatchSize);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // a student repeated within the batch keeps the first, earliest check-in
+        Map<Long, Map<String, PendingCheckIn>> bySession = new LinkedHashMap<>();
+        batch.forEach(checkIn -> bySession.computeIfAbsent(checkIn.sessionId(), id -> new LinkedHashMap<>())
+                .putIfAbsent(checkIn.studentId(), checkIn));
+        bySession.forEach((sessionId, checkIns) -> {
+            Map<String, CheckIn> received = new LinkedHashMap<>();
+            checkIns.forEach((studentId, checkIn) ->
+                    received.put(studentId, new CheckIn(checkIn.requestId(), checkIn.checkedInAt())));
+            try {
+                attendanceBitmapStore.markAttended(sessionId, received);
+                flushedCheckIns.addAndGet(checkIns.size());
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} buffered check-ins of session {} failed", checkIns.size(), sessionId, e);
+                checkIns.values().forEach(this::retryOrDrop);
+            }
+        });
+        return batch.size();
+    }
+
+    private void retryOrDrop(PendingCheckIn checkIn) {
+        PendingCheckIn failed = checkIn.failed();
+        if (failed.failedFlushes() < MAX_FLUSH_ATTEMPTS) {
+            retrying.add(failed);
+            return;
+        }
+        failedCheckIns.incrementAndGet();
+        log.error("Dropped the buffered check-in of student {} to session {} with request id {} after {} failed flushes",
+                failed.studentId(), failed.sessionId(), failed.requestId(), failed.failedFlushes());
+    }
+
+    /**
+     * Stops the flusher and writes every check-in that is still buffered. The flusher drains the buffer before it
+     * exits, a flusher still writing after the timeout keeps draining on its own and the buffer isn't touched here,
+     * so no batch is written twice and no retry is lost between two threads.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (flusher.isAlive()) {
+            log.warn("Check-in flusher is still writing after {}, left {} buffered check-ins to it",
+                    SHUTDOWN_TIMEOUT, pending.size());
+            return;
+        }
+        while (flushBatch() > 0) {
+            // drain what was accepted after the flusher exited
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Creates the rotating check-in codes of open sessions. Every session gets a random secret when it is
+ * opened, its code for a time step is the 6 digit HOTP (RFC 4226) of the step number, so rotating a
+ * code needs neither a database write nor any state beyond the secret.
+ */
+@Component
+public class CheckInCodeGenerator {
+
+    private static final int SECRET_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Duration step;
+    private final int acceptedPreviousSteps;
+    private final Clock clock;
+
+    @Autowired
+    public CheckInCodeGenerator(@Value("${attendx.attendance.check-in-code.step-seconds}") long stepSeconds,
+                                @Value("${attendx.attendance.check-in-code.accepted-previous-steps}") int acceptedPreviousSteps) {
+        this(Duration.ofSeconds(stepSeconds), acceptedPreviousSteps, Clock.systemUTC());
+    }
+
+    CheckInCodeGenerator(Duration step, int acceptedPreviousSteps, Clock clock) {
+        this.step = step;
+        this.acceptedPreviousSteps = acceptedPreviousSteps;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the code window of a newly opened session
+     */
+    public CheckInCodeWindow newWindow() {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        return new CheckInCodeWindow(secret, step, acceptedPreviousSteps, clock);
+    }
+}
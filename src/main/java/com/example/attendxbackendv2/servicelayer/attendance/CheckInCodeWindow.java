@@ -0,0 +1,103 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The valid check-in codes of one session: the code of the current time step and of a few previous
+ * steps, so a code read just before it rotated is still accepted. The window is recomputed once per
+ * step on first use and validation compares against the cached codes only.
+ */
+public final class CheckInCodeWindow {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DIGITS_MODULUS = 1_000_000;
+
+    /**
+     * @param codes codes[0] belongs to step, codes[i] to step - i
+     */
+    private record Snapshot(long step, byte[][] codes) {
+    }
+
+    private final byte[] secret;
+    private final long stepMillis;
+    private final int acceptedPreviousSteps;
+    private final Clock clock;
+    private volatile Snapshot snapshot;
+
+    CheckInCodeWindow(byte[] secret, Duration step, int acceptedPreviousSteps, Clock clock) {
+        this.secret = secret;
+        this.stepMillis = step.toMillis();
+        this.acceptedPreviousSteps = acceptedPreviousSteps;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the code students should enter now
+     */
+    public String currentCode() {
+        return new String(snapshot().codes()[0], StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return when the current code is replaced by the next one
+     */
+    public Instant currentCodeRotatesAt() {
+        return Instant.ofEpochMilli((snapshot().step() + 1) * stepMillis);
+    }
+
+    /**
+     * @return true if the code is the current one or one of the accepted previous ones
+     */
+    public boolean accepts(String code) {
+        if (code == null) {
+            return false;
+        }
+        byte[] candidate = code.getBytes(StandardCharsets.US_ASCII);
+        boolean accepted = false;
+        for (byte[] valid : snapshot().codes()) {
+            // no early exit, the time taken doesn't tell which step matched
+            accepted |= MessageDigest.isEqual(valid, candidate);
+        }
+        return accepted;
+    }
+
+    private Snapshot snapshot() {
+        long step = clock.millis() / stepMillis;
+        Snapshot current = snapshot;
+        if (current == null || current.step() != step) {
+            // racing threads compute the same codes, the last write wins
+            byte[][] codes = new byte[acceptedPreviousSteps + 1][];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = codeAt(step - i);
+            }
+            current = new Snapshot(step, codes);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private byte[] codeAt(long step) {
+        byte[] hash;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+        int offset = hash[hash.length - 1] & 0x0f;
+        int binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+        return String.format("%06d", binary % DIGITS_MODULUS).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of check-ins by their idempotency key for a time window, so a client retrying a
+ * check-in gets the original result without touching the database. Concurrent retries wait for the first
+ * attempt instead of running alongside it. A failed check-in is forgotten, its retry runs again.
+ * <p>
+ * Keys are kept in insertion order, which is also their expiry order, so expiring and evicting
+ * the oldest keys once more than the maximum are held are O(1) per key. Retries that reach another
+ * node, or arrive after the window, are collapsed by the unique request id of the attendance events.
+ */
+@Component
+public class CheckInDeduplicator {
+
+    private record Outcome(CompletableFuture<Boolean> result, long expiresAtNanos) {
+    }
+
+    private final long windowNanos;
+    private final int maxKeys;
+    /**
+     * Guarded by this
+     */
+    private final LinkedHashMap<String, Outcome> outcomes = new LinkedHashMap<>();
+
+    @Autowired
+    public CheckInDeduplicator(@Value("${attendx.attendance.idempotency.window-seconds}") long windowSeconds,
+                               @Value("${attendx.attendance.idempotency.max-keys}") int maxKeys) {
+        this.windowNanos = Duration.ofSeconds(windowSeconds).toNanos();
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Runs the check-in unless a check-in with the same key ran within the window.
+     * @param key idempotency key, unique per student and session
+     * @return the result of the first check-in with the key
+     */
+    public boolean deduplicate(String key, Supplier<Boolean> checkIn) {
+        Outcome outcome;
+        boolean first = false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            expire(now);
+            outcome = outcomes.get(key);
+            if (outcome == null) {
+                outcome = new Outcome(new CompletableFuture<>(), now + windowNanos);
+                outcomes.put(key, outcome);
+                first = true;
+                if (outcomes.size() > maxKeys) {
+                    Iterator<Outcome> oldest = outcomes.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+        }
+        if (!first) {
+            try {
+                return outcome.result().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            boolean result = checkIn.get();
+            outcome.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                outcomes.remove(key, outcome);
+            }
+            outcome.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public synchronized int size() {
+        return outcomes.size();
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<String, Outcome>> oldest = outcomes.entrySet().iterator();
+        while (oldest.hasNext() && oldest.next().getValue().expiresAtNanos() - now <= 0) {
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+/**
+ * How student check-ins reach the database, see attendx.attendance.check-in-mode
+ */
+public enum CheckInMode {
+    /**
+     * Every check-in is its own single row insert on the request thread, the response reports whether the student was marked
+     */
+    DIRECT,
+    /**
+     * Check-ins are acknowledged once accepted into the in-memory buffer and written in micro batches
+     */
+    BUFFERED
+}
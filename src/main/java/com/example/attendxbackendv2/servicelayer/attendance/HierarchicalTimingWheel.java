@@ -0,0 +1,169 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for many coarse deadlines, such as the close of every open session.
+ * Level 0 has {@code wheelSize} slots of one tick, every further level has slots as wide as a full
+ * rotation of the level below and is created when a deadline first needs it. Scheduling and
+ * cancelling are O(1), advancing costs one slot per elapsed tick plus the entries that cascade down.
+ * <p>
+ * Deadlines fire on the first tick at or after them, so never early and at most one tick late.
+ * Not thread safe on its own, callers serialize access.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    /**
+     * A scheduled entry, cancelling it keeps it in its slot until the slot is reached
+     */
+    public static final class Timeout<T> {
+        private final T task;
+        private final long deadlineMs;
+        private boolean cancelled;
+
+        private Timeout(T task, long deadlineMs) {
+            this.task = task;
+            this.deadlineMs = deadlineMs;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    /**
+     * Upper levels hand entries down at the start of their slot instead of firing them
+     */
+    private final boolean overflowLevel;
+    private final ArrayDeque<Timeout<T>>[] slots;
+    private long currentTimeMs;
+    private HierarchicalTimingWheel<T> overflowWheel;
+    private int size;
+
+    /**
+     * @param tickMs width of a level 0 slot
+     * @param wheelSize number of slots per level
+     * @param startMs current time, rounded down to a tick
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, false);
+    }
+
+    private HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs, boolean overflowLevel) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.overflowLevel = overflowLevel;
+        this.currentTimeMs = startMs - Math.floorMod(startMs, tickMs);
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Timeout<T>>[] emptySlots = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            emptySlots[i] = new ArrayDeque<>();
+        }
+        this.slots = emptySlots;
+    }
+
+    /**
+     * Schedules the task, a deadline that has already passed fires with the next tick.
+     * @return handle to cancel the task
+     */
+    public Timeout<T> schedule(T task, long deadlineMs) {
+        Timeout<T> timeout = new Timeout<>(task, deadlineMs);
+        add(timeout, false);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel to the given time.
+     * @return the tasks whose deadline is at or before nowMs and that weren't cancelled
+     */
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        for (ArrayDeque<Timeout<T>> slot = nextSlot(nowMs); slot != null; slot = nextSlot(nowMs)) {
+            for (Timeout<T> timeout = slot.poll(); timeout != null; timeout = slot.poll()) {
+                size--;
+                if (!timeout.isCancelled()) {
+                    expired.add(timeout.getTask());
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return number of scheduled tasks that neither fired nor were dropped after cancellation
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Advances one tick if nowMs allows it, moving the due entries of the upper levels down first.
+     * @return the slot that was reached, null if the wheel is already at nowMs
+     */
+    private ArrayDeque<Timeout<T>> nextSlot(long nowMs) {
+        if (currentTimeMs + tickMs > nowMs) {
+            return null;
+        }
+        currentTimeMs += tickMs;
+        if (overflowWheel != null) {
+            for (ArrayDeque<Timeout<T>> due = overflowWheel.nextSlot(currentTimeMs); due != null;
+                 due = overflowWheel.nextSlot(currentTimeMs)) {
+                for (Timeout<T> timeout = due.poll(); timeout != null; timeout = due.poll()) {
+                    add(timeout, true);
+                }
+            }
+        }
+        return slots[slotIndex(currentTimeMs)];
+    }
+
+    /**
+     * @param cascading true if the entry comes down from an upper level while its slot is being reached
+     */
+    private void add(Timeout<T> timeout, boolean cascading) {
+        // level 0 fires on the first tick at or after the deadline, upper levels hand down at the start of the slot
+        long deadlineMs = timeout.getDeadlineMs();
+        long slotTimeMs = overflowLevel
+                ? deadlineMs - Math.floorMod(deadlineMs, tickMs)
+                : deadlineMs + Math.floorMod(-deadlineMs, tickMs);
+        if (slotTimeMs <= currentTimeMs) {
+            if (cascading) {
+                // the current slot is drained right after the cascade
+                slots[slotIndex(currentTimeMs)].add(timeout);
+                return;
+            }
+            slotTimeMs = currentTimeMs + tickMs;
+        }
+        // the slot one interval ahead shares its index with the current one, which may still be draining
+        if (slotTimeMs < currentTimeMs + intervalMs) {
+            slots[slotIndex(slotTimeMs)].add(timeout);
+            return;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new HierarchicalTimingWheel<>(intervalMs, wheelSize, currentTimeMs, true);
+        }
+        overflowWheel.add(timeout, false);
+    }
+
+    private int slotIndex(long timeMs) {
+        return (int) Math.floorMod(Math.floorDiv(timeMs, tickMs), (long) wheelSize);
+    }
+}
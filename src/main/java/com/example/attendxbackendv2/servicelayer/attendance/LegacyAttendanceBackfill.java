@@ -0,0 +1,61 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the attendance recorded before the bitmaps, one row per expected student in session_entity_attendance,
+ * into the roster ordinals and bitmaps of its session. Runs on startup, every session is moved in its own transaction
+ * and its legacy rows are deleted with it, so an interrupted backfill resumes where it stopped on the next start.
+ * The table itself is left for the schema owner to drop once it is empty.
+ */
+@Slf4j
+@Component
+public class LegacyAttendanceBackfill {
+
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+    private final AttendanceBitmapStore attendanceBitmapStore;
+
+    @Autowired
+    public LegacyAttendanceBackfill(AttendanceJdbcRepository attendanceJdbcRepository,
+                                    AttendanceBitmapStore attendanceBitmapStore) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+        this.attendanceBitmapStore = attendanceBitmapStore;
+    }
+
+    /**
+     * Backfills every session that still has legacy attendance, a session that fails is logged and left for the next start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!attendanceJdbcRepository.hasLegacyAttendance()) {
+            return;
+        }
+        int backfilled = 0;
+        int failed = 0;
+        long afterSessionId = 0;
+        List<Long> sessionIds;
+        while (!(sessionIds = attendanceJdbcRepository.findLegacySessionIds(afterSessionId)).isEmpty()) {
+            for (Long sessionId : sessionIds) {
+                try {
+                    if (attendanceBitmapStore.backfillLegacySession(sessionId)) {
+                        backfilled++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.error("Backfilling the legacy attendance of session {} failed", sessionId, e);
+                }
+            }
+            afterSessionId = sessionIds.get(sessionIds.size() - 1);
+        }
+        if (backfilled > 0 || failed > 0) {
+            log.info("Backfilled the legacy attendance of {} sessions, {} failed", backfilled, failed);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.LiveAttendanceEventDTO;
+import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes the attendance of open sessions to subscribed lecturers as server-sent events.
+ * Check-ins only enqueue the student number when somebody is watching the session, a scheduled
+ * tick coalesces everything since the previous tick into one event per session, so a subscriber
+ * receives at most one event per interval however fast students check in.
+ */
+@Component
+public class LiveAttendanceBroadcaster {
+
+    static final String EVENT_NAME = "attendance";
+
+    private static final class Channel {
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final Queue<String> checkedIn = new ConcurrentLinkedQueue<>();
+    }
+
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final long emitterTimeoutMs;
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LiveAttendanceBroadcaster(LiveSessionRegistry liveSessionRegistry,
+                                     @Value("${attendx.attendance.live-events.emitter-timeout-ms}") long emitterTimeoutMs) {
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    /**
+     * Subscribes to the events of an open session, the first event is sent right away.
+     * @throws ResourceNotFoundException if the session isn't open
+     */
+    public SseEmitter subscribe(Long sessionId) {
+        LiveSession session = liveSessionRegistry.find(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Open session", "sessionId", sessionId.toString()));
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        channels.compute(sessionId, (id, existing) -> {
+            Channel subscribed = existing == null ? new Channel() : existing;
+            subscribed.subscribers.add(emitter);
+            return subscribed;
+        });
+        Runnable unsubscribe = () -> unsubscribe(sessionId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        send(emitter, new LiveAttendanceEventDTO(sessionId, session.getPresentCount(), session.getRosterSize(), List.of()));
+        return emitter;
+    }
+
+    /**
+     * Records a check-in for the next event, nothing is kept for sessions nobody watches.
+     */
+    public void recordCheckIn(Long sessionId, String studentId) {
+        Channel channel = channels.get(sessionId);
+        if (channel != null) {
+            channel.checkedIn.add(studentId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${attendx.attendance.live-events.interval-ms}")
+    public void publish() {
+        channels.forEach((sessionId, channel) -> {
+            Optional<LiveSession> session = liveSessionRegistry.find(sessionId);
+            if (session.isEmpty()) {
+                // the session was closed, the subscribers get its final state
+                channels.remove(sessionId, channel);
+                channel.subscribers.forEach(SseEmitter::complete);
+                return;
+            }
+            if (channel.checkedIn.isEmpty()) {
+                return;
+            }
+            List<String> checkedIn = new ArrayList<>();
+            for (String studentId = channel.checkedIn.poll(); studentId != null; studentId = channel.checkedIn.poll()) {
+                checkedIn.add(studentId);
+            }
+            LiveAttendanceEventDTO event = new LiveAttendanceEventDTO(sessionId,
+                    session.get().getPresentCount(), session.get().getRosterSize(), checkedIn);
+            channel.subscribers.forEach(emitter -> send(emitter, event));
+        });
+    }
+
+    private void send(SseEmitter emitter, LiveAttendanceEventDTO event) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long sessionId, SseEmitter emitter) {
+        channels.computeIfPresent(sessionId, (id, existing) -> {
+            existing.subscribers.remove(emitter);
+            return existing.subscribers.isEmpty() ? null : existing;
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory state of an open session: the roster as student number -> roster ordinal and the
+ * set of present ordinals. The present set is a lock-free bitset, concurrent check-ins of
+ * different students never block each other and a repeated check-in is a single read.
+ */
+public final class LiveSession {
+
+    @Getter
+    private final Long sessionId;
+    @Getter
+    private final LocalDate sessionDate;
+    private final Map<String, Integer> roster;
+    @Getter
+    private final CheckInCodeWindow checkInCodes;
+    private final AtomicLongArray presentWords;
+    /**
+     * Striped so concurrent check-ins don't contend on one counter, read a few times per second by the live events
+     */
+    private final LongAdder presentCount = new LongAdder();
+
+    /**
+     * @param roster student number -> ordinal of the students expected in the session
+     * @param attendanceBitmap persisted attendance of the session, see AttendanceBitmap
+     * @param checkInCodes the rotating codes students check in with
+     */
+    LiveSession(Long sessionId, LocalDate sessionDate, Map<String, Integer> roster, byte[] attendanceBitmap,
+                CheckInCodeWindow checkInCodes) {
+        this.sessionId = sessionId;
+        this.sessionDate = sessionDate;
+        this.checkInCodes = checkInCodes;
+        this.roster = Map.copyOf(roster);
+        int maxOrdinal = roster.values().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        this.presentWords = new AtomicLongArray(maxOrdinal / Long.SIZE + 1);
+        AttendanceBitmap attendance = AttendanceBitmap.of(attendanceBitmap);
+        this.roster.values().stream()
+                .filter(attendance::contains)
+                .forEach(this::markPresent);
+    }
+
+    /**
+     * @return the roster ordinal of the student, empty if the student isn't expected in the session
+     */
+    public OptionalInt ordinalOf(String studentId) {
+        Integer ordinal = roster.get(studentId);
+        return ordinal == null ? OptionalInt.empty() : OptionalInt.of(ordinal);
+    }
+
+    public boolean isPresent(int ordinal) {
+        return (presentWords.get(ordinal / Long.SIZE) & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * @return true if the student wasn't present before
+     */
+    public boolean markPresent(int ordinal) {
+        int index = ordinal / Long.SIZE;
+        long mask = 1L << ordinal;
+        long word;
+        do {
+            word = presentWords.get(index);
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!presentWords.compareAndSet(index, word, word | mask));
+        presentCount.increment();
+        return true;
+    }
+
+    /**
+     * @return true if the student was present before
+     */
+    public boolean markAbsent(int ordinal) {
+        int index = ordinal / Long.SIZE;
+        long mask = 1L << ordinal;
+        long word;
+        do {
+            word = presentWords.get(index);
+            if ((word & mask) == 0) {
+                return false;
+            }
+        } while (!presentWords.compareAndSet(index, word, word & ~mask));
+        presentCount.decrement();
+        return true;
+    }
+
+    public int getPresentCount() {
+        return presentCount.intValue();
+    }
+
+    public int getRosterSize() {
+        return roster.size();
+    }
+}
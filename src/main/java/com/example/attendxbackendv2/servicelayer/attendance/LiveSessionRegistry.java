@@ -0,0 +1,84 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions that are open for check-in, held in memory so a check-in is validated and marked
+ * without a database read. The database stays the durable copy: a check-in is written before it is marked here,
+ * on the request thread in {@link CheckInMode#DIRECT} mode or through the CheckInBuffer in {@link CheckInMode#BUFFERED}
+ * mode, and the registry is rebuilt from it after a restart.
+ * <p>
+ * The check-in code secret of a session exists only here. With the registry disabled only the codes of open
+ * sessions are kept, check-ins are then validated against them and written to the database.
+ * <p>
+ * Sessions are opened and closed by the SessionLifecycleManager.
+ */
+@Component
+public class LiveSessionRegistry {
+
+    private final CheckInCodeGenerator checkInCodeGenerator;
+    private final boolean enabled;
+    private final ConcurrentHashMap<Long, LiveSession> openSessions = new ConcurrentHashMap<>();
+    /**
+     * Codes of the open sessions while the registry is disabled
+     */
+    private final ConcurrentHashMap<Long, CheckInCodeWindow> openCheckInCodes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LiveSessionRegistry(CheckInCodeGenerator checkInCodeGenerator,
+                               @Value("${attendx.attendance.live-registry.enabled}") boolean enabled) {
+        this.checkInCodeGenerator = checkInCodeGenerator;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Opens the session with a new check-in code secret, replacing its previous state if it was already open.
+     * @param roster student number -> ordinal of the students expected in the session
+     * @param attendanceBitmap persisted attendance of the session
+     */
+    public LiveSession open(Long sessionId, LocalDate sessionDate, Map<String, Integer> roster, byte[] attendanceBitmap) {
+        LiveSession session = new LiveSession(sessionId, sessionDate, roster, attendanceBitmap,
+                checkInCodeGenerator.newWindow());
+        if (enabled) {
+            openSessions.put(sessionId, session);
+        } else {
+            openCheckInCodes.put(sessionId, session.getCheckInCodes());
+        }
+        return session;
+    }
+
+    /**
+     * @return the open session, empty if the session isn't open or the registry is disabled
+     */
+    public Optional<LiveSession> find(Long sessionId) {
+        return Optional.ofNullable(openSessions.get(sessionId));
+    }
+
+    /**
+     * @return the check-in codes of the open session whether or not the registry is enabled, empty if it isn't open
+     */
+    public Optional<CheckInCodeWindow> findCheckInCodes(Long sessionId) {
+        return find(sessionId).map(LiveSession::getCheckInCodes)
+                .or(() -> Optional.ofNullable(openCheckInCodes.get(sessionId)));
+    }
+
+    /**
+     * Evicts the session, later check-ins go to the database.
+     * @return the state of the session when it was closed, empty if it wasn't open
+     */
+    public Optional<LiveSession> close(Long sessionId) {
+        openCheckInCodes.remove(sessionId);
+        return Optional.ofNullable(openSessions.remove(sessionId));
+    }
+
+    public int getOpenCount() {
+        return openSessions.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.entities.ProxyCheckInFlagEntity;
+import com.example.attendxbackendv2.datalayer.repositories.ProxyCheckInFlagRepository;
+import com.example.attendxbackendv2.servicelayer.exceptions.ProxyCheckInRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Detects students checking in absent friends from their own device: a source that checks in more different
+ * students to a session than the threshold within the window gets its check-ins flagged, or rejected.
+ * <p>
+ * Every session and source pair keeps its last arrivals in a ring of atomic references one longer than the
+ * threshold, so a check-in scans a handful of entries and never takes a lock or touches the database.
+ * Pairs without a check-in for a window are forgotten by the scheduled flush, and no new pair is tracked
+ * while the maximum is held. Flags are queued and written in batches by the same flush, a full queue drops them.
+ */
+@Slf4j
+@Component
+public class ProxyCheckInDetector {
+
+    private static final int FLAG_QUEUE_CAPACITY = 10_000;
+
+    private record Arrival(String studentId, long atNanos) {
+    }
+
+    private static final class SourceWindow {
+
+        private final AtomicReferenceArray<Arrival> arrivals;
+        private final AtomicInteger next = new AtomicInteger();
+        /**
+         * Until when the students already in the ring are flagged, later students are flagged one by one
+         */
+        private final AtomicLong groupFlaggedUntilNanos;
+        private volatile long lastSeenNanos;
+
+        private SourceWindow(int size, long nowNanos) {
+            this.arrivals = new AtomicReferenceArray<>(size);
+            this.groupFlaggedUntilNanos = new AtomicLong(nowNanos);
+            this.lastSeenNanos = nowNanos;
+        }
+    }
+
+    private final ProxyCheckInFlagRepository proxyCheckInFlagRepository;
+    private final ProxyDetectionMode mode;
+    private final Duration window;
+    private final long windowNanos;
+    private final int maxStudentsPerSource;
+    private final int maxSources;
+    private final ConcurrentHashMap<String, SourceWindow> sources = new ConcurrentHashMap<>();
+    private final BlockingQueue<ProxyCheckInFlagEntity> pendingFlags = new ArrayBlockingQueue<>(FLAG_QUEUE_CAPACITY);
+
+    private final AtomicLong untrackedCheckIns = new AtomicLong();
+    private final AtomicLong droppedFlags = new AtomicLong();
+
+    @Autowired
+    public ProxyCheckInDetector(ProxyCheckInFlagRepository proxyCheckInFlagRepository,
+                                @Value("${attendx.attendance.proxy-detection.mode}") ProxyDetectionMode mode,
+                                @Value("${attendx.attendance.proxy-detection.window-seconds}") long windowSeconds,
+                                @Value("${attendx.attendance.proxy-detection.max-students-per-source}") int maxStudentsPerSource,
+                                @Value("${attendx.attendance.proxy-detection.max-sources}") int maxSources) {
+        this.proxyCheckInFlagRepository = proxyCheckInFlagRepository;
+        this.mode = mode;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.windowNanos = window.toNanos();
+        this.maxStudentsPerSource = maxStudentsPerSource;
+        this.maxSources = maxSources;
+    }
+
+    /**
+     * Counts the check-in against its source and flags it if the source exceeds the threshold.
+     * @param source client address of the check-in, null skips the detection
+     * @throws ProxyCheckInRejectedException if the source exceeds the threshold in REJECT mode
+     */
+    public void inspect(Long sessionId, String source, String studentId) {
+        if (mode == ProxyDetectionMode.OFF || source == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        String key = sessionId + "@" + source;
+        SourceWindow sourceWindow = sources.get(key);
+        if (sourceWindow == null) {
+            if (sources.size() >= maxSources) {
+                untrackedCheckIns.incrementAndGet();
+                return;
+            }
+            sourceWindow = sources.computeIfAbsent(key, k -> new SourceWindow(maxStudentsPerSource + 1, now));
+        }
+        sourceWindow.lastSeenNanos = now;
+
+        List<String> students = new ArrayList<>(maxStudentsPerSource + 1);
+        for (int i = 0; i < sourceWindow.arrivals.length(); i++) {
+            Arrival arrival = sourceWindow.arrivals.get(i);
+            if (arrival != null && now - arrival.atNanos() < windowNanos && !students.contains(arrival.studentId())) {
+                students.add(arrival.studentId());
+            }
+        }
+        if (students.contains(studentId)) {
+            // a repeated check-in of the same student doesn't count again
+            return;
+        }
+        int slot = Math.floorMod(sourceWindow.next.getAndIncrement(), sourceWindow.arrivals.length());
+        sourceWindow.arrivals.set(slot, new Arrival(studentId, now));
+        int studentsFromSource = students.size() + 1;
+        if (studentsFromSource <= maxStudentsPerSource) {
+            return;
+        }
+
+        boolean rejected = mode == ProxyDetectionMode.REJECT;
+        Instant flaggedAt = Instant.now();
+        long groupFlaggedUntil = sourceWindow.groupFlaggedUntilNanos.get();
+        if (groupFlaggedUntil - now <= 0
+                && sourceWindow.groupFlaggedUntilNanos.compareAndSet(groupFlaggedUntil, now + windowNanos)) {
+            // the students before the threshold was crossed were accepted, they are flagged along with this one
+            students.forEach(earlier -> flag(new ProxyCheckInFlagEntity(sessionId, earlier, source,
+                    studentsFromSource, false, flaggedAt)));
+        }
+        flag(new ProxyCheckInFlagEntity(sessionId, studentId, source, studentsFromSource, rejected, flaggedAt));
+        if (rejected) {
+            throw new ProxyCheckInRejectedException(sessionId.toString(), studentsFromSource, window.toSeconds());
+        }
+    }
+
+    /**
+     * Writes the queued flags and forgets the sources without a check-in for a window.
+     */
+    @Scheduled(fixedDelayString = "${attendx.attendance.proxy-detection.flush-interval-ms}")
+    public void flush() {
+        long now = System.nanoTime();
+        sources.values().removeIf(sourceWindow -> now - sourceWindow.lastSeenNanos >= windowNanos);
+
+        List<ProxyCheckInFlagEntity> flags = new ArrayList<>();
+        pendingFlags.drainTo(flags);
+        if (flags.isEmpty()) {
+            return;
+        }
+        try {
+            proxyCheckInFlagRepository.saveAll(flags);
+        } catch (RuntimeException e) {
+            droppedFlags.addAndGet(flags.size());
+            log.error("Dropped {} proxy check-in flags", flags.size(), e);
+        }
+    }
+
+    public int getTrackedSourceCount() {
+        return sources.size();
+    }
+
+    public long getUntrackedCount() {
+        return untrackedCheckIns.get();
+    }
+
+    public long getDroppedFlagCount() {
+        return droppedFlags.get();
+    }
+
+    private void flag(ProxyCheckInFlagEntity flag) {
+        if (!pendingFlags.offer(flag)) {
+            droppedFlags.incrementAndGet();
+        }
+    }
+}
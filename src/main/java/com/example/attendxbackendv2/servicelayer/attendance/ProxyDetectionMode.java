@@ -0,0 +1,16 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+/**
+ * What happens to check-ins of a source that exceeds the proxy detection threshold, see attendx.attendance.proxy-detection.mode
+ */
+public enum ProxyDetectionMode {
+    OFF,
+    /**
+     * The check-in is accepted and flagged for the lecturer to review
+     */
+    FLAG,
+    /**
+     * The check-in is flagged and rejected
+     */
+    REJECT
+}
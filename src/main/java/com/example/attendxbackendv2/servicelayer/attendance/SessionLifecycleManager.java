@@ -0,0 +1,162 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.OpenSession;
+import com.example.attendxbackendv2.servicelayer.attendance.HierarchicalTimingWheel.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Closes open sessions when their check-in window ends. Every open session has its close scheduled
+ * on a timing wheel, a tick only touches the sessions that are due, however many are open.
+ * Closing finalizes the attendance into the session's persisted bitmap and evicts it from the LiveSessionRegistry.
+ * <p>
+ * The wheel is node-local. Every node schedules the sessions it started or found open on startup and closes them on
+ * its own, so with several nodes a session is closed once per node that knows it. Finalizing is idempotent, a later
+ * close folds in the same events again and evicts the session from that node's registry. A session started on
+ * another node is scheduled here only after this node restarts.
+ */
+@Slf4j
+@Component
+public class SessionLifecycleManager {
+
+    /**
+     * With one second ticks level 0 covers about 8.5 minutes and level 1 about 3 days
+     */
+    static final int WHEEL_SIZE = 512;
+
+    /**
+     * Delay before closing a session again after finalizing it failed
+     */
+    static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+    private final AttendanceBitmapStore attendanceBitmapStore;
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final Duration checkInWindow;
+    private final Duration lateAfter;
+    /**
+     * Guarded by this, as is scheduledCloses
+     */
+    private final HierarchicalTimingWheel<Long> closingWheel;
+    private final Map<Long, Timeout<Long>> scheduledCloses = new HashMap<>();
+
+    @Autowired
+    public SessionLifecycleManager(AttendanceJdbcRepository attendanceJdbcRepository,
+                                   AttendanceBitmapStore attendanceBitmapStore,
+                                   LiveSessionRegistry liveSessionRegistry,
+                                   @Value("${attendx.attendance.check-in-window-minutes}") long checkInWindowMinutes,
+                                   @Value("${attendx.attendance.late-after-minutes}") long lateAfterMinutes,
+                                   @Value("${attendx.attendance.session-close.tick-ms}") long tickMs) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+        this.attendanceBitmapStore = attendanceBitmapStore;
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.checkInWindow = Duration.ofMinutes(checkInWindowMinutes);
+        this.lateAfter = Duration.ofMinutes(lateAfterMinutes);
+        this.closingWheel = new HierarchicalTimingWheel<>(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * @return how long a started session stays open for check-in
+     */
+    public Duration getCheckInWindow() {
+        return checkInWindow;
+    }
+
+    /**
+     * @return grace period after a session is opened in which a check-in counts as on time
+     */
+    public Duration getLateAfter() {
+        return lateAfter;
+    }
+
+    /**
+     * Schedules the close of an open session, replacing its previously scheduled close.
+     * A time in the past closes the session with the next tick.
+     */
+    public synchronized void scheduleClose(Long sessionId, Instant closesAt) {
+        Timeout<Long> previous = scheduledCloses.put(sessionId, closingWheel.schedule(sessionId, closesAt.toEpochMilli()));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * @return true if the session is open and its close is scheduled
+     */
+    public synchronized boolean isOpen(Long sessionId) {
+        return scheduledCloses.containsKey(sessionId);
+    }
+
+    public synchronized int getOpenCount() {
+        return scheduledCloses.size();
+    }
+
+    /**
+     * Finalizes the attendance of the session from the event log and evicts it from memory. Check-ins accepted
+     * in memory until the eviction were written or buffered before they were accepted, so they still reach the log.
+     * @return false if the session doesn't exist
+     */
+    public boolean closeSession(Long sessionId) {
+        synchronized (this) {
+            Timeout<Long> scheduled = scheduledCloses.remove(sessionId);
+            if (scheduled != null) {
+                scheduled.cancel();
+            }
+        }
+        boolean closed = attendanceBitmapStore.finalizeSession(sessionId, Instant.now());
+        liveSessionRegistry.close(sessionId);
+        return closed;
+    }
+
+    @Scheduled(fixedDelayString = "${attendx.attendance.session-close.tick-ms}")
+    public void closeDueSessions() {
+        List<Long> due;
+        synchronized (this) {
+            due = closingWheel.advance(System.currentTimeMillis());
+            due.forEach(scheduledCloses::remove);
+        }
+        for (Long sessionId : due) {
+            try {
+                closeSession(sessionId);
+            } catch (RuntimeException e) {
+                log.error("Couldn't close session {}, retrying in {}", sessionId, RETRY_DELAY, e);
+                scheduleClose(sessionId, Instant.now().plus(RETRY_DELAY));
+            }
+        }
+    }
+
+    /**
+     * Schedules the close of the sessions that were open before the application was restarted and
+     * reopens them in the registry. Their check-in codes change, the lecturer's screen picks up the
+     * new code with the next rotation. Sessions started before they had a check-in window close at the end of their day.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant now = Instant.now();
+        for (OpenSession openSession : attendanceJdbcRepository.findOpenSessions()) {
+            Instant closesAt = Optional.ofNullable(openSession.closesAt()).orElseGet(() ->
+                    openSession.sessionDate().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            if (closesAt.isAfter(now)) {
+                attendanceJdbcRepository.findSessionBitmaps(openSession.sessionId()).ifPresent(stored ->
+                        liveSessionRegistry.open(stored.sessionId(), stored.sessionDate(),
+                                attendanceJdbcRepository.findSessionRoster(stored.sessionId()),
+                                attendanceBitmapStore.currentAttendance(stored).attendance().toByteArray(stored.roster().length)));
+            }
+            scheduleClose(openSession.sessionId(), closesAt);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+/**
+ * Attendance of a student in a session, classified against the session's opening and the late grace period
+ */
+public enum AttendanceClassification {
+    /**
+     * Checked in within the grace period, or marked present by a lecturer
+     */
+    PRESENT,
+    /**
+     * Checked in after the grace period
+     */
+    LATE,
+    ABSENT,
+}
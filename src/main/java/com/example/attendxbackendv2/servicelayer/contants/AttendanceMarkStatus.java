@@ -0,0 +1,6 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+public enum AttendanceMarkStatus {
+    MARKED,
+    NOT_ENROLLED,
+}
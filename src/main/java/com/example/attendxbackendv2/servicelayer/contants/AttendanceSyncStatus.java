@@ -0,0 +1,35 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+/**
+ * Outcome of one record of an offline attendance sync
+ */
+public enum AttendanceSyncStatus {
+    /**
+     * The record won and changed the student's attendance
+     */
+    APPLIED,
+    /**
+     * The record won but the student's attendance already matched it
+     */
+    UNCHANGED,
+    /**
+     * A later change, or a lecturer's change over a check-in, won over the record
+     */
+    STALE,
+    /**
+     * The student isn't on the session's roster
+     */
+    NOT_ENROLLED,
+    /**
+     * There is no session with the record's session id
+     */
+    SESSION_NOT_FOUND,
+    /**
+     * The session was never started so it has no roster to check the record against
+     */
+    SESSION_NOT_STARTED,
+    /**
+     * The record is dated after the upload, the device's clock is off
+     */
+    FUTURE_TIMESTAMP
+}
@@ -6,11 +6,15 @@ public class CourseConstants{
     // Status codes
     public static final String STATUS_201 = "201";
     public static final String STATUS_200 = "200";
+    public static final String STATUS_202 = "202";
     public static final String STATUS_417 = "417";
 
     // Messages
     public static final String MESSAGE_201 = "Course created successfully";
     public static final String MESSAGE_200 = "Request processed successfully";
+    public static final String MESSAGE_202_WAITLISTED = "Course is full, the student is on the waitlist";
+    public static final String MESSAGE_202_QUEUED = "Enrollment request is queued, follow the Location header for its outcome";
+    public static final String ENROLLMENT_TICKET_PATH = "/api/v1/course/enrollment-tickets/";
     public static final String MESSAGE_417_UPDATE = "Update operation failed. Please try again or contact Dev team";
     public static final String MESSAGE_417_DELETE = "Delete operation failed. Please try again or contact Dev team";
 
@@ -0,0 +1,13 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+/**
+ * Why a row of an enrollment import couldn't be applied
+ */
+public enum EnrollmentImportStatus {
+    /**
+     * The row doesn't hold a course code and a student number
+     */
+    INVALID_ROW,
+    COURSE_NOT_FOUND,
+    STUDENT_NOT_FOUND
+}
@@ -0,0 +1,12 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+/**
+ * Outcome of a student's enrollment request
+ */
+public enum EnrollmentStatus {
+    ENROLLED,
+    /**
+     * The course is full, the student gets the next free seat in the order of the waitlist
+     */
+    WAITLISTED
+}
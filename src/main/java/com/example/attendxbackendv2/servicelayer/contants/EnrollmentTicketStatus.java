@@ -0,0 +1,23 @@
+package com.example.attendxbackendv2.servicelayer.contants;
+
+/**
+ * State of a queued enrollment request
+ */
+public enum EnrollmentTicketStatus {
+    /**
+     * Waiting for the admission queue, every other status is final
+     */
+    QUEUED,
+    ENROLLED,
+    /**
+     * The course is full, the student gets the next free seat in the order of the waitlist
+     */
+    WAITLISTED,
+    ALREADY_ENROLLED,
+    COURSE_NOT_FOUND,
+    STUDENT_NOT_FOUND,
+    /**
+     * The batch of the request couldn't be written, the request may be sent again
+     */
+    FAILED
+}
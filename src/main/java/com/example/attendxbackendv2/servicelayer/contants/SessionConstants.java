@@ -7,6 +7,9 @@ public class SessionConstants {
     public static final String STATUS_202 = "202";
     public static final String STATUS_417 = "417";
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENCY_KEY_PATTERN = "^[A-Za-z0-9_-]{1,64}$";
+
     // Messages
     public static final String MESSAGE_202 = "Student attended to session successfully";
     public static final String MESSAGE_417 = "Student  couldn't attended to session expectation failed!";
@@ -0,0 +1,15 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+/**
+ * How students' enrollment requests reach the database, see attendx.enrollment.admission-mode
+ */
+public enum EnrollmentAdmissionMode {
+    /**
+     * Every request enrolls the student on the request thread, the response reports the outcome
+     */
+    DIRECT,
+    /**
+     * Requests are answered with a ticket right away and enrolled in batches per course by the admission queue
+     */
+    QUEUED
+}
@@ -0,0 +1,358 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentTicketDTO;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentTicketStatus;
+import com.example.attendxbackendv2.servicelayer.exceptions.EnrollmentQueueFullException;
+import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for enrollment requests in {@link EnrollmentAdmissionMode#QUEUED} mode, for the rush when
+ * enrollment opens. A request is put on the queue of its course and answered with a ticket right away, no
+ * connection is taken on the request thread. A fixed pool of workers drains the course queues, one worker per
+ * course at a time, and enrolls a batch of a course's requests with one lock of the course's row, so the database
+ * sees at most one transaction per worker however many students are waiting. A course hands its worker back after
+ * every batch, so busy courses take turns. A full queue rejects new requests instead of growing.
+ * <p>
+ * Tickets are held in memory only, a client polls or subscribes to the node that queued its request.
+ * A ticket is only visible to the user that submitted it, to anyone else it doesn't exist.
+ * Finished tickets are forgotten after the ticket TTL, queued requests are processed when the application shuts down.
+ */
+@Slf4j
+@Component
+public class EnrollmentAdmissionQueue {
+
+    static final String EVENT_NAME = "enrollment";
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * A queued request, its status changes once from QUEUED to the outcome
+     */
+    private static final class Ticket {
+        private final String ticketId;
+        private final String courseCode;
+        private final String studentId;
+        private final Long submittedBy;
+        // guarded by the ticket, emptied when the outcome is sent
+        private final List<SseEmitter> subscribers = new ArrayList<>();
+        private volatile EnrollmentTicketStatus status = EnrollmentTicketStatus.QUEUED;
+        private volatile long completedAtNanos;
+
+        private Ticket(String ticketId, String courseCode, String studentId, Long submittedBy) {
+            this.ticketId = ticketId;
+            this.courseCode = courseCode;
+            this.studentId = studentId;
+            this.submittedBy = submittedBy;
+        }
+
+        private EnrollmentTicketDTO toDTO() {
+            return new EnrollmentTicketDTO(ticketId, courseCode, studentId, status);
+        }
+    }
+
+    private static final class CourseQueue {
+        private final Queue<Ticket> tickets = new ConcurrentLinkedQueue<>();
+        // true while a drain of the queue is submitted to or running on the workers
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final SeatAllocator seatAllocator;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long ticketTtlNanos;
+    private final long emitterTimeoutMs;
+    private final ExecutorService workers;
+
+    private final ConcurrentHashMap<String, CourseQueue> courses = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    @Autowired
+    public EnrollmentAdmissionQueue(EnrollmentJdbcRepository enrollmentJdbcRepository, SeatAllocator seatAllocator,
+                                    @Value("${attendx.enrollment.admission-mode}") EnrollmentAdmissionMode mode,
+                                    @Value("${attendx.enrollment.admission-queue.capacity}") int capacity,
+                                    @Value("${attendx.enrollment.admission-queue.workers}") int workers,
+                                    @Value("${attendx.enrollment.admission-queue.batch-size}") int batchSize,
+                                    @Value("${attendx.enrollment.admission-queue.ticket-ttl-seconds}") long ticketTtlSeconds,
+                                    @Value("${attendx.enrollment.admission-queue.emitter-timeout-ms}") long emitterTimeoutMs) {
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.seatAllocator = seatAllocator;
+        this.enabled = mode == EnrollmentAdmissionMode.QUEUED;
+        this.capacity = capacity;
+        this.batchSize = Math.max(batchSize, 1);
+        this.ticketTtlNanos = Duration.ofSeconds(ticketTtlSeconds).toNanos();
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        // the threads are started with the first queued request
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "enrollment-admission-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(Math.max(workers, 1), threadFactory);
+    }
+
+    /**
+     * @return true if students' enrollment requests should go through the queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the enrollment of a student, the course and the student are resolved by the worker.
+     * @param submittedBy user id of the user submitting the request, the only one that can read its ticket
+     * @return id of the ticket of the request
+     * @throws EnrollmentQueueFullException if the queue is full, the caller should retry later
+     */
+    public String submit(String courseCode, String studentId, Long submittedBy) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            throw new EnrollmentQueueFullException(capacity);
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), courseCode, studentId, submittedBy);
+        tickets.put(ticket.ticketId, ticket);
+        // added under the map's lock, so the sweep never drops a queue that just got a ticket
+        CourseQueue queue = courses.compute(courseCode.toUpperCase(Locale.ROOT), (code, existing) -> {
+            CourseQueue courseQueue = existing == null ? new CourseQueue() : existing;
+            courseQueue.tickets.add(ticket);
+            return courseQueue;
+        });
+        schedule(courseCode.toUpperCase(Locale.ROOT), queue);
+        return ticket.ticketId;
+    }
+
+    /**
+     * @param userId user id of the user asking, the one that submitted the request
+     * @throws ResourceNotFoundException if there is no such ticket of the user or it was forgotten
+     */
+    public EnrollmentTicketDTO getTicket(String ticketId, Long userId) {
+        return findTicket(ticketId, userId).toDTO();
+    }
+
+    /**
+     * Subscribes to the outcome of a ticket. The current state is sent right away,
+     * the outcome once the request is processed, then the stream completes.
+     * @param userId user id of the user subscribing, the one that submitted the request
+     * @throws ResourceNotFoundException if there is no such ticket of the user or it was forgotten
+     */
+    public SseEmitter subscribe(String ticketId, Long userId) {
+        Ticket ticket = findTicket(ticketId, userId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        boolean completed;
+        synchronized (ticket) {
+            // sent under the lock so the outcome can't overtake it, the emitter only buffers it before it is returned
+            send(emitter, ticket.toDTO());
+            completed = ticket.status != EnrollmentTicketStatus.QUEUED;
+            if (!completed) {
+                ticket.subscribers.add(emitter);
+            }
+        }
+        if (completed) {
+            emitter.complete();
+            return emitter;
+        }
+        Runnable unsubscribe = () -> {
+            synchronized (ticket) {
+                ticket.subscribers.remove(emitter);
+            }
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Forgets the tickets whose outcome is older than the ticket TTL and the queues of courses without requests.
+     */
+    @Scheduled(fixedDelayString = "${attendx.enrollment.admission-queue.sweep-interval-ms}")
+    public void sweep() {
+        long now = System.nanoTime();
+        tickets.values().removeIf(ticket -> ticket.status != EnrollmentTicketStatus.QUEUED
+                && now - ticket.completedAtNanos > ticketTtlNanos);
+        for (String courseCode : courses.keySet()) {
+            courses.computeIfPresent(courseCode, (code, queue) ->
+                    queue.tickets.isEmpty() && !queue.scheduled.get() ? null : queue);
+        }
+    }
+
+    private void schedule(String courseCode, CourseQueue queue) {
+        if (!queue.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            workers.execute(() -> drain(courseCode, queue));
+        } catch (RejectedExecutionException e) {
+            // shutting down, the remaining requests are processed by stop()
+            queue.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Processes one batch of the course's requests and hands the worker to the next course.
+     */
+    private void drain(String courseCode, CourseQueue queue) {
+        try {
+            processBatch(courseCode, queue);
+        } finally {
+            queue.scheduled.set(false);
+            if (!queue.tickets.isEmpty()) {
+                schedule(courseCode, queue);
+            }
+        }
+    }
+
+    /**
+     * @return number of requests taken from the queue
+     */
+    private int processBatch(String courseCode, CourseQueue queue) {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        for (Ticket ticket = queue.tickets.poll(); ticket != null; ticket = queue.tickets.poll()) {
+            batch.add(ticket);
+            if (batch.size() == batchSize) {
+                break;
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            enroll(courseCode, batch);
+        } catch (RuntimeException e) {
+            log.error("Failed {} queued enrollments of course {}", batch.size(), courseCode, e);
+            batch.forEach(ticket -> complete(ticket, EnrollmentTicketStatus.FAILED));
+        } finally {
+            queued.addAndGet(-batch.size());
+        }
+        return batch.size();
+    }
+
+    private void enroll(String courseCode, List<Ticket> batch) {
+        Long courseId = enrollmentJdbcRepository.findCourseIds(List.of(courseCode)).get(courseCode);
+        if (courseId == null) {
+            batch.forEach(ticket -> complete(ticket, EnrollmentTicketStatus.COURSE_NOT_FOUND));
+            return;
+        }
+        Set<String> studentIds = new HashSet<>();
+        batch.forEach(ticket -> studentIds.add(ticket.studentId));
+        Map<String, Long> userIds = enrollmentJdbcRepository.findStudentUserIds(studentIds);
+        // first come first served, a student queued twice is enrolled once and both tickets get the outcome
+        Set<Long> requested = new LinkedHashSet<>();
+        batch.forEach(ticket -> {
+            Long userId = userIds.get(ticket.studentId);
+            if (userId != null) {
+                requested.add(userId);
+            }
+        });
+        Map<Long, EnrollmentStatus> outcomes = seatAllocator.enrollAll(courseId, requested);
+        for (Ticket ticket : batch) {
+            Long userId = userIds.get(ticket.studentId);
+            if (userId == null) {
+                complete(ticket, EnrollmentTicketStatus.STUDENT_NOT_FOUND);
+                continue;
+            }
+            EnrollmentStatus outcome = outcomes.get(userId);
+            if (outcome == null) {
+                complete(ticket, EnrollmentTicketStatus.ALREADY_ENROLLED);
+            } else {
+                complete(ticket, outcome == EnrollmentStatus.ENROLLED
+                        ? EnrollmentTicketStatus.ENROLLED : EnrollmentTicketStatus.WAITLISTED);
+            }
+        }
+    }
+
+    private void complete(Ticket ticket, EnrollmentTicketStatus status) {
+        List<SseEmitter> subscribers;
+        synchronized (ticket) {
+            ticket.completedAtNanos = System.nanoTime();
+            ticket.status = status;
+            subscribers = new ArrayList<>(ticket.subscribers);
+            ticket.subscribers.clear();
+        }
+        EnrollmentTicketDTO outcome = ticket.toDTO();
+        subscribers.forEach(emitter -> {
+            send(emitter, outcome);
+            emitter.complete();
+        });
+    }
+
+    private Ticket findTicket(String ticketId, Long userId) {
+        Ticket ticket = tickets.get(ticketId);
+        // another user's ticket is reported missing, so ticket ids can't be probed
+        if (ticket == null || !Objects.equals(ticket.submittedBy, userId)) {
+            throw new ResourceNotFoundException("Enrollment ticket", "ticketId", ticketId);
+        }
+        return ticket;
+    }
+
+    private void send(SseEmitter emitter, EnrollmentTicketDTO ticket) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(ticket, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Stops the workers and processes every request that is still queued. A course whose worker is still running
+     * after the shutdown timeout is left to that worker, so no course is ever drained by two threads at once.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        courses.forEach((courseCode, queue) -> {
+            if (!queue.scheduled.compareAndSet(false, true)) {
+                log.warn("Course {} is still being drained after {}, left {} queued enrollments to its worker",
+                        courseCode, SHUTDOWN_TIMEOUT, queue.tickets.size());
+                return;
+            }
+            try {
+                while (processBatch(courseCode, queue) > 0) {
+                    // drain what was queued while the workers were stopping
+                }
+            } finally {
+                queue.scheduled.set(false);
+            }
+        });
+    }
+}
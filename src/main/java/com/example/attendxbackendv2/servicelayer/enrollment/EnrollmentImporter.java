@@ -0,0 +1,173 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository.Enrollment;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentImportErrorDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentImportResultDTO;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentImportStatus;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Enrolls students from a roster CSV holding a course code and a student number per row, optionally under a
+ * course_code,student_id header. The file is read as a stream in chunks of rows. Every chunk resolves its course
+ * codes and student numbers with a query each, reads which of its students are enrolled already with one more and
+ * inserts the rest as one batch, so memory stays flat whatever the size of the file. Only the first errors are
+ * kept for the report, the rest are counted.
+ * <p>
+ * Each batch commits on its own, a failed import keeps the chunks before the failure and can simply be uploaded again.
+ */
+@Component
+public class EnrollmentImporter {
+
+    static final int CHUNK_ROWS = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String HEADER_COURSE_CODE = "course_code";
+
+    private record Row(long number, String courseCode, String studentId) {
+    }
+
+    /**
+     * Counts of one import and its first errors
+     */
+    private static final class Report {
+
+        private long enrolled;
+        private long alreadyEnrolled;
+        private long errorCount;
+        private final List<EnrollmentImportErrorDTO> errors = new ArrayList<>();
+
+        private void error(long row, String courseCode, String studentId, EnrollmentImportStatus status) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new EnrollmentImportErrorDTO(row, courseCode, studentId, status));
+            }
+        }
+    }
+
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final SeatAllocator seatAllocator;
+
+    @Autowired
+    public EnrollmentImporter(EnrollmentJdbcRepository enrollmentJdbcRepository, SeatAllocator seatAllocator) {
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.seatAllocator = seatAllocator;
+    }
+
+    /**
+     * @param csv the roster, read to its end but not closed
+     * @return the numbers of enrolled and already enrolled rows and the rows that couldn't be applied
+     */
+    public EnrollmentImportResultDTO importEnrollments(Reader csv) throws IOException {
+        Report report = new Report();
+        // course codes repeat on every row, they are resolved once per import
+        Map<String, Long> courseIds = new HashMap<>();
+        Set<String> unknownCourses = new HashSet<>();
+        CSVReader reader = new CSVReaderBuilder(csv).build();
+        List<Row> chunk = new ArrayList<>(CHUNK_ROWS);
+        while (true) {
+            String[] line;
+            try {
+                line = reader.readNext();
+            } catch (CsvValidationException e) {
+                report.error(reader.getRecordsRead(), null, null, EnrollmentImportStatus.INVALID_ROW);
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            long number = reader.getRecordsRead();
+            if (line.length == 1 && line[0].isBlank()) {
+                continue;
+            }
+            if (number == 1 && HEADER_COURSE_CODE.equalsIgnoreCase(line[0].trim())) {
+                continue;
+            }
+            if (line.length != 2 || line[0].isBlank() || line[1].isBlank()) {
+                report.error(number, line[0].trim(), line.length > 1 ? line[1].trim() : null,
+                        EnrollmentImportStatus.INVALID_ROW);
+                continue;
+            }
+            chunk.add(new Row(number, line[0].trim().toUpperCase(Locale.ROOT), line[1].trim()));
+            if (chunk.size() == CHUNK_ROWS) {
+                enroll(chunk, courseIds, unknownCourses, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            enroll(chunk, courseIds, unknownCourses, report);
+        }
+        return new EnrollmentImportResultDTO(report.enrolled, report.alreadyEnrolled, report.errorCount, report.errors);
+    }
+
+    private void enroll(List<Row> chunk, Map<String, Long> courseIds, Set<String> unknownCourses, Report report) {
+        Set<String> newCourseCodes = new HashSet<>();
+        Set<String> studentIds = new HashSet<>();
+        for (Row row : chunk) {
+            if (!courseIds.containsKey(row.courseCode()) && !unknownCourses.contains(row.courseCode())) {
+                newCourseCodes.add(row.courseCode());
+            }
+            studentIds.add(row.studentId());
+        }
+        if (!newCourseCodes.isEmpty()) {
+            Map<String, Long> found = enrollmentJdbcRepository.findCourseIds(newCourseCodes);
+            courseIds.putAll(found);
+            newCourseCodes.removeAll(found.keySet());
+            unknownCourses.addAll(newCourseCodes);
+        }
+        Map<String, Long> userIds = enrollmentJdbcRepository.findStudentUserIds(studentIds);
+
+        Set<Enrollment> requested = new LinkedHashSet<>();
+        for (Row row : chunk) {
+            Long courseId = courseIds.get(row.courseCode());
+            Long userId = userIds.get(row.studentId());
+            if (courseId == null) {
+                report.error(row.number(), row.courseCode(), row.studentId(), EnrollmentImportStatus.COURSE_NOT_FOUND);
+            } else if (userId == null) {
+                report.error(row.number(), row.courseCode(), row.studentId(), EnrollmentImportStatus.STUDENT_NOT_FOUND);
+            } else if (!requested.add(new Enrollment(courseId, userId))) {
+                // the same enrollment twice in the chunk
+                report.alreadyEnrolled++;
+            }
+        }
+        if (requested.isEmpty()) {
+            return;
+        }
+        Set<Long> requestedCourseIds = new HashSet<>();
+        Set<Long> requestedUserIds = new HashSet<>();
+        requested.forEach(enrollment -> {
+            requestedCourseIds.add(enrollment.courseId());
+            requestedUserIds.add(enrollment.userId());
+        });
+        for (Enrollment existing : enrollmentJdbcRepository.findEnrollments(requestedCourseIds, requestedUserIds)) {
+            if (requested.remove(existing)) {
+                report.alreadyEnrolled++;
+            }
+        }
+        // an enrollment committed meanwhile is skipped by the insert
+        List<Enrollment> inserted = enrollmentJdbcRepository.enrollAll(requested);
+        report.enrolled += inserted.size();
+        report.alreadyEnrolled += requested.size() - inserted.size();
+        if (inserted.isEmpty()) {
+            return;
+        }
+        // imports may go past the capacity, the seat counters follow them
+        seatAllocator.recount(inserted.stream().map(Enrollment::courseId).collect(Collectors.toSet()), inserted);
+    }
+}
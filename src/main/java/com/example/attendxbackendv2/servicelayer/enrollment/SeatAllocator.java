@@ -0,0 +1,135 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository.Enrollment;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Allocates the seats of the courses. A student takes a seat with one conditional update of the course's seat
+ * counter, so concurrent enrollments never oversell a course and only hold its row, never a table lock, until
+ * their transaction ends. A student that finds the course full joins its waitlist, which is promoted in order
+ * whenever seats free up. Editors' bulk enrollments may go past the capacity, they recount the seats afterwards.
+ * <p>
+ * Call from a transaction, so the seat and the enrollment commit together, enrollAll starts one of its own if needed.
+ */
+@Component
+public class SeatAllocator {
+
+    static final int PROMOTION_CHUNK = 500;
+
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+
+    @Autowired
+    public SeatAllocator(EnrollmentJdbcRepository enrollmentJdbcRepository) {
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+    }
+
+    /**
+     * Enrolls the student if the course has a free seat, otherwise puts the student on its waitlist.
+     * @return the outcome, empty if the student is already enrolled
+     */
+    public Optional<EnrollmentStatus> enroll(Long courseId, Long userId) {
+        if (enrollmentJdbcRepository.takeSeat(courseId)) {
+            if (!enrollmentJdbcRepository.enroll(courseId, userId)) {
+                enrollmentJdbcRepository.releaseSeat(courseId);
+                return Optional.empty();
+            }
+            enrollmentJdbcRepository.leaveWaitlists(List.of(new Enrollment(courseId, userId)));
+            return Optional.of(EnrollmentStatus.ENROLLED);
+        }
+        if (enrollmentJdbcRepository.isEnrolled(courseId, userId)) {
+            return Optional.empty();
+        }
+        enrollmentJdbcRepository.joinWaitlist(courseId, userId, Instant.now());
+        return Optional.of(EnrollmentStatus.WAITLISTED);
+    }
+
+    /**
+     * Enrolls the students in the order given while the course has free seats and puts the rest on its waitlist,
+     * locking the course's row once for all of them.
+     * @param userIds user ids of distinct students
+     * @return the outcome per user id, students already enrolled are left out
+     */
+    @Transactional
+    public Map<Long, EnrollmentStatus> enrollAll(Long courseId, Collection<Long> userIds) {
+        Map<Long, EnrollmentStatus> outcomes = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return outcomes;
+        }
+        // the lock comes first, so nobody enrolls in the course between the reads below and the inserts
+        Integer freeSeats = enrollmentJdbcRepository.lockFreeSeats(courseId);
+        Set<Long> enrolledAlready = new HashSet<>();
+        enrollmentJdbcRepository.findEnrollments(List.of(courseId), userIds)
+                .forEach(enrollment -> enrolledAlready.add(enrollment.userId()));
+        int seats = freeSeats == null ? Integer.MAX_VALUE : Math.max(freeSeats, 0);
+        List<Enrollment> enrolled = new ArrayList<>();
+        List<Enrollment> waitlisted = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (enrolledAlready.contains(userId)) {
+                continue;
+            }
+            if (enrolled.size() < seats) {
+                enrolled.add(new Enrollment(courseId, userId));
+                outcomes.put(userId, EnrollmentStatus.ENROLLED);
+            } else {
+                waitlisted.add(new Enrollment(courseId, userId));
+                outcomes.put(userId, EnrollmentStatus.WAITLISTED);
+            }
+        }
+        if (!enrolled.isEmpty()) {
+            enrollmentJdbcRepository.enrollAll(enrolled);
+            recount(List.of(courseId), enrolled);
+        }
+        enrollmentJdbcRepository.joinWaitlists(waitlisted, Instant.now());
+        return outcomes;
+    }
+
+    /**
+     * Sets the seat counters of the courses after enrollments written without taking seats,
+     * and takes the enrolled students off the waitlists.
+     */
+    public void recount(Collection<Long> courseIds, Collection<Enrollment> enrolled) {
+        enrollmentJdbcRepository.leaveWaitlists(enrolled);
+        enrollmentJdbcRepository.recountSeats(courseIds);
+    }
+
+    /**
+     * Fills the free seats of the course from the head of its waitlist, with the course's row locked.
+     * @return number of students promoted
+     */
+    public int promoteWaitlisted(Long courseId) {
+        int promoted = 0;
+        while (true) {
+            Integer freeSeats = enrollmentJdbcRepository.lockFreeSeats(courseId);
+            int limit = freeSeats == null ? PROMOTION_CHUNK : Math.min(freeSeats, PROMOTION_CHUNK);
+            if (limit <= 0) {
+                return promoted;
+            }
+            List<Enrollment> head = enrollmentJdbcRepository.findWaitlistHead(courseId, limit).stream()
+                    .map(userId -> new Enrollment(courseId, userId))
+                    .toList();
+            if (head.isEmpty()) {
+                return promoted;
+            }
+            enrollmentJdbcRepository.enrollAll(head);
+            recount(List.of(courseId), head);
+            promoted += head.size();
+            if (head.size() < limit) {
+                return promoted;
+            }
+        }
+    }
+}
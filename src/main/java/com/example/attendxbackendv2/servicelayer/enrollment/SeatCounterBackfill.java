@@ -0,0 +1,33 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the seats of the courses that were enrolled before the seat counter was added. The column is created
+ * with 0 for every existing course, so without the recount SeatAllocator would sell their taken seats again.
+ * Runs on startup and only touches counters that are 0 for a course with enrolled students, so it does the work once.
+ */
+@Slf4j
+@Component
+public class SeatCounterBackfill {
+
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+
+    @Autowired
+    public SeatCounterBackfill(EnrollmentJdbcRepository enrollmentJdbcRepository) {
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int recounted = enrollmentJdbcRepository.recountUncountedSeats();
+        if (recounted > 0) {
+            log.info("Counted the taken seats of {} courses enrolled before the seat counter", recounted);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.attendxbackendv2.servicelayer.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class CheckInBufferFullException extends RuntimeException {
+
+    public CheckInBufferFullException(int capacity) {
+        super(String.format("Check-in buffer is full with %d pending check-ins, please retry in a moment", capacity));
+    }
+}
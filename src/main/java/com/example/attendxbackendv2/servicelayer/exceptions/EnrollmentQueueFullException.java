@@ -0,0 +1,12 @@
+package com.example.attendxbackendv2.servicelayer.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class EnrollmentQueueFullException extends RuntimeException {
+
+    public EnrollmentQueueFullException(int capacity) {
+        super(String.format("Enrollment queue is full with %d pending requests, please retry in a moment", capacity));
+    }
+}
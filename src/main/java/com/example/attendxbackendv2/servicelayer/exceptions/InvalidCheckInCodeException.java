@@ -0,0 +1,12 @@
+package com.example.attendxbackendv2.servicelayer.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidCheckInCodeException extends RuntimeException {
+
+    public InvalidCheckInCodeException(String sessionId) {
+        super(String.format("Check-in code of session with id: %s is invalid or has expired", sessionId));
+    }
+}
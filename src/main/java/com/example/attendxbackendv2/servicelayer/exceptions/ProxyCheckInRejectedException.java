@@ -0,0 +1,18 @@
+package com.example.attendxbackendv2.servicelayer.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class ProxyCheckInRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ProxyCheckInRejectedException(String sessionId, int studentsFromSource, long retryAfterSeconds) {
+        super(String.format("Check-in to session with id: %s is rejected, %d students checked in from this device",
+                sessionId, studentsFromSource));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,23 +2,42 @@ package com.example.attendxbackendv2.servicelayer.implementations;
 
 import com.example.attendxbackendv2.datalayer.entities.*;
 import com.example.attendxbackendv2.datalayer.repositories.*;
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AddressDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseDTO;
-import com.example.attendxbackendv2.presentationlayer.datatransferobjects.UserBaseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentImportResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentTicketDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.GenericListResponseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository.Enrollment;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
+import com.example.attendxbackendv2.servicelayer.enrollment.EnrollmentAdmissionQueue;
+import com.example.attendxbackendv2.servicelayer.enrollment.EnrollmentImporter;
+import com.example.attendxbackendv2.servicelayer.enrollment.SeatAllocator;
 import com.example.attendxbackendv2.servicelayer.exceptions.CourseAlreadyExistsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.exceptions.StudentAlreadyEnrolledException;
 import com.example.attendxbackendv2.servicelayer.interfaces.CourseService;
-import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.mappers.CourseMapper;
+import com.example.attendxbackendv2.servicelayer.mappers.SessionMapper;
+import com.example.attendxbackendv2.servicelayer.mappers.StudentMapper;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -32,16 +51,24 @@ public class CourseServiceImpl implements CourseService {
     private final CourseRepository courseRepository;
     private final StudentRepository studentRepository;
     private final SessionRepository sessionRepository;
-    private final LoginService loginService;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final EnrollmentImporter enrollmentImporter;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentAdmissionQueue enrollmentAdmissionQueue;
 
     @Autowired
-    public CourseServiceImpl(LecturerRepository lecturerRepository, DepartmentRepository departmentRepository, CourseRepository courseRepository, StudentRepository studentRepository, SessionRepository sessionRepository, LoginService loginService) {
+    public CourseServiceImpl(LecturerRepository lecturerRepository, DepartmentRepository departmentRepository, CourseRepository courseRepository, StudentRepository studentRepository, SessionRepository sessionRepository,
+                             EnrollmentJdbcRepository enrollmentJdbcRepository, EnrollmentImporter enrollmentImporter,
+                             SeatAllocator seatAllocator, EnrollmentAdmissionQueue enrollmentAdmissionQueue) {
         this.lecturerRepository = lecturerRepository;
         this.departmentRepository = departmentRepository;
         this.courseRepository = courseRepository;
         this.studentRepository = studentRepository;
         this.sessionRepository = sessionRepository;
-        this.loginService = loginService;
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.enrollmentImporter = enrollmentImporter;
+        this.seatAllocator = seatAllocator;
+        this.enrollmentAdmissionQueue = enrollmentAdmissionQueue;
     }
 
 
@@ -67,10 +94,9 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     @Transactional
-    public List<CourseDTO> getAllCourses(int pageNo, boolean ascending, String token) {
-        String loginRole = loginService.validateToken(token);
+    public List<CourseDTO> getAllCourses(int pageNo, boolean ascending, AuthenticatedPrincipal principal) {
         Pageable pageable;
-        if(loginRole.equalsIgnoreCase("EDITOR") || loginRole.equalsIgnoreCase("STUDENT")){
+        if(principal.hasRole(UserConfigConstants.EDITOR_ROLE_VALUE) || principal.hasRole(UserConfigConstants.STUDENT_ROLE_VALUE)){
             if (ascending) {
                 pageable = PageRequest.of(pageNo, pageSize, Sort.by("courseCode").ascending());
             } else {
@@ -79,15 +105,12 @@ public class CourseServiceImpl implements CourseService {
             List<CourseEntity> courseEntities = courseRepository.findAll(pageable).getContent();
             return courseEntities.stream().map(courseEntity -> CourseMapper.mapToCourseDTO(courseEntity, new CourseDTO(), false)).toList();
         } else {
-            UserBaseDTO userBaseEntity = loginService.getUserByToken(UUID.fromString(token));
-            LecturerEntity lecturer = lecturerRepository.findLecturerEntityByEmailIgnoreCase(userBaseEntity.getEmail())
-                    .orElseThrow(() -> new ResourceNotFoundException("Lecturer", "email",userBaseEntity.getEmail()));
             if (ascending) {
                 pageable = PageRequest.of(pageNo, pageSize, Sort.by("courseCode").ascending());
             } else {
                 pageable = PageRequest.of(pageNo, pageSize, Sort.by("courseCode").descending());
             }
-            List<CourseEntity> courseEntities = courseRepository.findAllByLecturer(pageable,lecturer).getContent();
+            List<CourseEntity> courseEntities = courseRepository.findAllByLecturerUserId(pageable, principal.getUserId()).getContent();
             return courseEntities.stream().map(courseEntity -> CourseMapper.mapToCourseDTO(courseEntity, new CourseDTO(), false)).toList();
         }
 
@@ -95,22 +118,16 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     @Transactional
-    public CourseDTO getCourseByCourseCode(String courseCode, boolean getDetails, String token) throws ResourceNotFoundException, InvalidCredentialsException {
-        String loginRole = loginService.validateToken(token);
-        Pageable pageable;
-
+    public CourseDTO getCourseByCourseCode(String courseCode, boolean getDetails, AuthenticatedPrincipal principal) throws ResourceNotFoundException, InvalidCredentialsException {
         CourseEntity course = courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseCode)
                 .orElseThrow(() -> new ResourceNotFoundException("Course", "courseCode", courseCode));
-        if(loginRole.equalsIgnoreCase("STUDENT")){
+        if(principal.hasRole(UserConfigConstants.STUDENT_ROLE_VALUE)){
             CourseDTO courseDTO =  CourseMapper.mapToCourseDTO(course, new CourseDTO(), getDetails);
             courseDTO.setCourseSessions(null);
             courseDTO.setEnrolledStudents(null);
             return courseDTO;
-        }else if(loginRole.equalsIgnoreCase("LECTURER")){
-            UserBaseDTO userBaseEntity = loginService.getUserByToken(UUID.fromString(token));
-            LecturerEntity lecturer = lecturerRepository.findLecturerEntityByEmailIgnoreCase(userBaseEntity.getEmail())
-                    .orElseThrow(() -> new ResourceNotFoundException("Lecturer", "email",userBaseEntity.getEmail()));
-            if(lecturer.getCourses().stream().anyMatch(lecturerCourse -> lecturerCourse.getCourseCode().equalsIgnoreCase(courseCode))){
+        }else if(principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)){
+            if(Objects.equals(course.getLecturer().getUserId(), principal.getUserId())){
                 return CourseMapper.mapToCourseDTO(course, new CourseDTO(), getDetails);
             }else{
                 throw new InvalidCredentialsException("Invalid Token");
@@ -122,7 +139,30 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     @Transactional
-    public boolean updateCourse(CourseDTO courseDTO, String token){
+    public GenericListResponseDTO<StudentDTO> getEnrolledStudents(String courseCode, int pageNo, AuthenticatedPrincipal principal)
+            throws ResourceNotFoundException, InvalidCredentialsException {
+        CourseEntity course = findAccessibleCourse(courseCode, principal);
+        Page<StudentEntity> students = courseRepository.findEnrolledStudents(course.getCourseId(), PageRequest.of(pageNo, pageSize));
+        return new GenericListResponseDTO<>(students.getContent().stream()
+                .map(student -> StudentMapper.mapStudentEntityToStudentDTO(student, new StudentDTO(), new AddressDTO(), false))
+                .toList(), students.getTotalPages());
+    }
+
+    @Override
+    @Transactional
+    public GenericListResponseDTO<SessionDTO> getCourseSessions(String courseCode, int pageNo, AuthenticatedPrincipal principal)
+            throws ResourceNotFoundException, InvalidCredentialsException {
+        CourseEntity course = findAccessibleCourse(courseCode, principal);
+        Page<SessionEntity> sessions = sessionRepository.findAllByCourseCourseIdAndSessionDateLessThanEqual(course.getCourseId(),
+                LocalDate.now(), PageRequest.of(pageNo, pageSize, Sort.by("sessionDate").ascending()));
+        return new GenericListResponseDTO<>(sessions.getContent().stream()
+                .map(session -> SessionMapper.mapToSessionDTO(session, new SessionDTO()))
+                .toList(), sessions.getTotalPages());
+    }
+
+    @Override
+    @Transactional
+    public boolean updateCourse(CourseDTO courseDTO, AuthenticatedPrincipal principal){
         boolean isUpdated = false;
         //First find course
         CourseEntity courseToUpdate = courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseDTO.getCourseCode())
@@ -130,8 +170,7 @@ public class CourseServiceImpl implements CourseService {
                         "courseCode",
                         courseDTO.getCourseCode()));
 
-        UserBaseDTO userBaseEntity = loginService.getUserByToken(UUID.fromString(token));
-        if(!courseToUpdate.getLecturer().getEmail().equalsIgnoreCase(userBaseEntity.getEmail()) && userBaseEntity.getRole().equalsIgnoreCase("LECTURER")){
+        if(!Objects.equals(courseToUpdate.getLecturer().getUserId(), principal.getUserId()) && principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)){
             throw new InvalidCredentialsException("Invalid Token");
         }
         // Then find department by department name if not found then throw exception
@@ -145,11 +184,8 @@ public class CourseServiceImpl implements CourseService {
                         "email",
                         courseDTO.getLecturerEmail()));
 
-        // Then Find The students the course entity
-        Set<StudentEntity> oldStudents = new HashSet<>(
-                courseToUpdate.getEnrolledStudents().stream().map(student -> studentRepository.findStudentEntityByStudentId(student.getStudentId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Student", "email", student.getEmail()))).toList()
-        );
+        // Then find the enrolled students of the course by user id, without loading them
+        Set<Long> oldStudents = new HashSet<>(enrollmentJdbcRepository.findEnrolledUserIds(courseToUpdate.getCourseId()));
 
         //First Update the changed meta fields inside the course entity not the relationships
         CourseMapper.mapToCourseEntity(courseToUpdate, courseDTO);
@@ -165,8 +201,16 @@ public class CourseServiceImpl implements CourseService {
                         "email",
                         courseDTO.getLecturerEmail()));
 
-        Set<StudentEntity> newStudents = new HashSet<>(courseDTO.getEnrolledStudents().stream().map(student -> studentRepository.findStudentEntityByStudentId(student.getStudentNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Student", "email", student.getEmail()))).toList());
+        // A course sent without students keeps its enrollments
+        Set<Long> newStudents = courseDTO.getEnrolledStudents() == null
+                ? oldStudents
+                : findStudentUserIds(courseDTO.getEnrolledStudents());
+
+        Set<Long> studentsToRemove = new HashSet<>(oldStudents);
+        studentsToRemove.removeAll(newStudents);
+
+        Set<Long> studentsToAdd = new HashSet<>(newStudents);
+        studentsToAdd.removeAll(oldStudents);
 
         try {
             if (!Objects.equals(oldDepartment.getDepartmentId(), newDepartment.getDepartmentId())) {
@@ -192,31 +236,20 @@ public class CourseServiceImpl implements CourseService {
                 lecturerRepository.save(newLecturer);
             }
 
-            Set<StudentEntity> studentsToRemove = new HashSet<>(oldStudents);
-            studentsToRemove.removeAll(newStudents);
-
-            Set<StudentEntity> studentsToAdd = new HashSet<>(newStudents);
-            studentsToAdd.removeAll(oldStudents);
-
-            for (StudentEntity student : studentsToRemove) {
-                student.unrollFromCourse(courseToUpdate);
-                studentRepository.save(student);
-
-                courseToUpdate.unrollStudent(student);
-                courseRepository.save(courseToUpdate);
-            }
-
-            for (StudentEntity student : studentsToAdd) {
-                courseToUpdate.enrollStudent(student);
-                courseRepository.save(courseToUpdate);
-                student.enrollToCourse(courseToUpdate);
-                studentRepository.save(student);
-            }
+            // the diff goes straight to the join table, a delete and a batched insert whatever the number of students
+            enrollmentJdbcRepository.unenroll(courseToUpdate.getCourseId(), studentsToRemove);
+            enrollmentJdbcRepository.enroll(courseToUpdate.getCourseId(), studentsToAdd);
 
         } finally {
             courseRepository.save(courseToUpdate);
 
         }
+        // the seats follow the new roster and capacity, the capacity has to be written before
+        courseRepository.flush();
+        Long courseId = courseToUpdate.getCourseId();
+        seatAllocator.recount(List.of(courseId),
+                studentsToAdd.stream().map(userId -> new Enrollment(courseId, userId)).toList());
+        seatAllocator.promoteWaitlisted(courseId);
 
         isUpdated = true;
         return isUpdated;
@@ -224,21 +257,66 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     @Transactional
-    public boolean enrollStudent(String courseCode, String studentId) throws ResourceNotFoundException {
-        boolean isEnrolled = false;
+    public EnrollmentStatus enrollStudent(String courseCode, String studentId) throws ResourceNotFoundException {
         CourseEntity course = courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseCode)
                 .orElseThrow(() -> new ResourceNotFoundException("Course", "courseCode", courseCode));
         StudentEntity student = studentRepository.findStudentEntityByStudentId(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Student", "studentId", studentId));
-        if(course.getEnrolledStudents().stream().anyMatch(studentEntity -> studentEntity.getStudentId().equalsIgnoreCase(studentId))){
-            throw new StudentAlreadyEnrolledException(studentId, courseCode);
+        // neither side's collection is loaded, the unique key of the join table is the duplicate check
+        return seatAllocator.enroll(course.getCourseId(), student.getUserId())
+                .orElseThrow(() -> new StudentAlreadyEnrolledException(studentId, courseCode));
+    }
+
+    @Override
+    public Optional<String> queueEnrollment(String courseCode, String studentId, AuthenticatedPrincipal principal) {
+        if (!enrollmentAdmissionQueue.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(enrollmentAdmissionQueue.submit(courseCode, studentId, principal.getUserId()));
+    }
+
+    @Override
+    public EnrollmentTicketDTO getEnrollmentTicket(String ticketId, AuthenticatedPrincipal principal) {
+        return enrollmentAdmissionQueue.getTicket(ticketId, principal.getUserId());
+    }
+
+    @Override
+    public SseEmitter subscribeToEnrollmentTicket(String ticketId, AuthenticatedPrincipal principal) {
+        return enrollmentAdmissionQueue.subscribe(ticketId, principal.getUserId());
+    }
+
+    @Override
+    public EnrollmentImportResultDTO importEnrollments(InputStream roster) throws IOException {
+        return enrollmentImporter.importEnrollments(new InputStreamReader(roster, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Resolves the students with one query.
+     * @return the user ids of the students
+     * @throws ResourceNotFoundException if one of the students doesn't exist
+     */
+    private Set<Long> findStudentUserIds(List<StudentDTO> students) {
+        Set<String> studentNumbers = new HashSet<>();
+        students.forEach(student -> studentNumbers.add(student.getStudentNumber()));
+        Map<String, Long> userIds = new HashMap<>();
+        studentRepository.findAllByStudentIdIn(studentNumbers)
+                .forEach(student -> userIds.put(student.getStudentId(), student.getUserId()));
+        for (String studentNumber : studentNumbers) {
+            if (!userIds.containsKey(studentNumber)) {
+                throw new ResourceNotFoundException("Student", "studentId", studentNumber);
+            }
+        }
+        return new HashSet<>(userIds.values());
+    }
+
+    private CourseEntity findAccessibleCourse(String courseCode, AuthenticatedPrincipal principal) {
+        CourseEntity course = courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Course", "courseCode", courseCode));
+        if (principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)
+                && !Objects.equals(course.getLecturer().getUserId(), principal.getUserId())) {
+            throw new InvalidCredentialsException("Invalid Token");
         }
-        course.enrollStudent(student);
-        courseRepository.save(course);
-        student.enrollToCourse(course);
-        studentRepository.save(student);
-        isEnrolled = true;
-        return isEnrolled;
+        return course;
     }
 
     @Transactional
@@ -8,6 +8,7 @@ import com.example.attendxbackendv2.presentationlayer.datatransferobjects.Editor
 import com.example.attendxbackendv2.servicelayer.exceptions.EditorAlreadyExistException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.interfaces.EditorService;
+import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.mappers.EditorMapper;
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
@@ -27,10 +28,12 @@ public class EditorServiceImpl implements EditorService {
     private int pageSize;
 
     private final EditorRepository editorRepository;
+    private final LoginService loginService;
 
     @Autowired
-    public EditorServiceImpl(EditorRepository editorRepository) {
+    public EditorServiceImpl(EditorRepository editorRepository, LoginService loginService) {
         this.editorRepository = editorRepository;
+        this.loginService = loginService;
     }
 
     @PostConstruct
@@ -103,6 +106,7 @@ public class EditorServiceImpl implements EditorService {
     public boolean deleteEditor(String email) {
         EditorEntity editor = editorRepository.findEditorEntitiesByEmailIgnoreCase(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Editor", "email", email));
+        loginService.revokeUserSessions(editor.getUserId());
         editorRepository.delete(editor);
         return true;
     }
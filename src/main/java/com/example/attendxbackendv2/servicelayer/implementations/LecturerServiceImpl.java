@@ -11,6 +11,7 @@ import com.example.attendxbackendv2.presentationlayer.datatransferobjects.Lectur
 import com.example.attendxbackendv2.servicelayer.exceptions.LecturerAlreadyExistException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.interfaces.LecturerService;
+import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.mappers.CourseMapper;
 import com.example.attendxbackendv2.servicelayer.mappers.LecturerMapper;
 import jakarta.transaction.Transactional;
@@ -29,11 +30,14 @@ public class LecturerServiceImpl implements LecturerService {
     private int pageSize;
     private final LecturerRepository lecturerRepository;
     private final DepartmentRepository departmentRepository;
+    private final LoginService loginService;
 
     @Autowired
-    public LecturerServiceImpl(LecturerRepository lecturerRepository, DepartmentRepository departmentRepository) {
+    public LecturerServiceImpl(LecturerRepository lecturerRepository, DepartmentRepository departmentRepository,
+                               LoginService loginService) {
         this.lecturerRepository = lecturerRepository;
         this.departmentRepository = departmentRepository;
+        this.loginService = loginService;
     }
 
     @Override
@@ -135,6 +139,7 @@ public class LecturerServiceImpl implements LecturerService {
         department.removeLecturer(lecturer);
         departmentRepository.save(department);
         lecturer.setRegisteredDepartment(null);
+        loginService.revokeUserSessions(lecturer.getUserId());
         lecturerRepository.delete(lecturer);
         return true;
     }
@@ -1,20 +1,35 @@
 package com.example.attendxbackendv2.servicelayer.implementations;
 
+import com.example.attendxbackendv2.datalayer.entities.AuthSessionEntity;
 import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
 import com.example.attendxbackendv2.datalayer.entities.UserBaseEntity;
-import com.example.attendxbackendv2.datalayer.repositories.StudentRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AuthSessionRepository;
 import com.example.attendxbackendv2.datalayer.repositories.UserRepository;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AddressDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.TokenCacheStatsDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.UserBaseDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.security.SignedTokenCodec;
+import com.example.attendxbackendv2.security.TokenMode;
 import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.mappers.StudentMapper;
 import com.example.attendxbackendv2.servicelayer.mappers.UserGenericMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -22,36 +37,89 @@ public class LoginServiceImpl implements LoginService {
 
 
     private final UserRepository userRepository;
-    private final StudentRepository studentRepository;
+    private final AuthSessionRepository authSessionRepository;
+    private final SignedTokenCodec signedTokenCodec;
+    private final TokenMode tokenMode;
+    private final Duration sessionTimeToLive;
+
+    /**
+     * token -> principal cache, bounded by size. An entry is evicted after the configured time since it was loaded
+     * or when its session expires, whichever comes first.
+     * Only valid tokens are cached so unknown tokens always go to the database.
+     */
+    private final Cache<String, CachedSession> tokenCache;
+
+    /**
+     * Signed tokens can't be withdrawn from the client, logged out ones are kept here until they expire.
+     * The set is local to the node.
+     */
+    private final Cache<String, Boolean> revokedSignedTokens;
+
+    /**
+     * Users whose signed tokens are rejected, kept until every token issued to them expired. Local to the node.
+     */
+    private final Cache<Long, Boolean> revokedSignedUsers;
 
     @Autowired
-    public LoginServiceImpl(UserRepository userRepository, StudentRepository studentRepository) {
+    public LoginServiceImpl(UserRepository userRepository,
+                            AuthSessionRepository authSessionRepository,
+                            SignedTokenCodec signedTokenCodec,
+                            @Value("${attendx.auth.token-mode}") TokenMode tokenMode,
+                            @Value("${attendx.auth.session-ttl-seconds}") long sessionTtlSeconds,
+                            @Value("${attendx.auth.token-cache.maximum-size}") long tokenCacheMaximumSize,
+                            @Value("${attendx.auth.token-cache.ttl-seconds}") long tokenCacheTtlSeconds) {
+        if (tokenMode == TokenMode.SIGNED && !signedTokenCodec.isConfigured()) {
+            throw new IllegalStateException("attendx.auth.signing-secret must be set when attendx.auth.token-mode is SIGNED");
+        }
         this.userRepository = userRepository;
-        this.studentRepository = studentRepository;
+        this.authSessionRepository = authSessionRepository;
+        this.signedTokenCodec = signedTokenCodec;
+        this.tokenMode = tokenMode;
+        this.sessionTimeToLive = Duration.ofSeconds(sessionTtlSeconds);
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaximumSize)
+                .expireAfter(new CachedSessionExpiry(Duration.ofSeconds(tokenCacheTtlSeconds)))
+                .recordStats()
+                .build();
+        this.revokedSignedTokens = Caffeine.newBuilder()
+                .expireAfterWrite(signedTokenCodec.getTimeToLive())
+                .build();
+        this.revokedSignedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(signedTokenCodec.getTimeToLive())
+                .build();
     }
 
     @Override
-    public UUID login(String email, String password) throws InvalidCredentialsException {
+    public String login(String email, String password) throws InvalidCredentialsException {
         UserBaseEntity user = userRepository.findUserBaseEntityByEmailIgnoreCase(email).orElseThrow(() -> new InvalidCredentialsException("Invalid Credentials"));
-        if (user.getPassword().equals(password)) {
-            UUID sessionToken = UUID.randomUUID();
-            user.setSessionToken(sessionToken);
-            userRepository.save(user);
-            return sessionToken;
-        } else {
+        if (!user.getPassword().equals(password)) {
             throw new InvalidCredentialsException("Invalid Credentials");
         }
-
+        if (tokenMode == TokenMode.SIGNED) {
+            return signedTokenCodec.issue(UserGenericMapper.mapUserEntityToPrincipal(user));
+        }
+        // every login opens a new session, the sessions of the user on other devices stay valid
+        Instant now = Instant.now();
+        AuthSessionEntity session = new AuthSessionEntity(UUID.randomUUID(), user, now, now.plus(sessionTimeToLive));
+        authSessionRepository.save(session);
+        return session.getToken().toString();
     }
 
     @Override
     public boolean logout(String token) {
        boolean isLoggedOut = false;
+       if (tokenMode == TokenMode.SIGNED) {
+           if (signedTokenCodec.verify(token).isEmpty()) {
+               return false;
+           }
+           revokedSignedTokens.put(token, Boolean.TRUE);
+           return true;
+       }
        try{
-           UserBaseEntity userBaseEntity =  userRepository.findUserBaseEntityBySessionToken(UUID.fromString(token))
-                   .orElseThrow(() -> new ResourceNotFoundException("User", "session_token", token));
-           userBaseEntity.setSessionToken(null);
-           userRepository.save(userBaseEntity);
+           if (authSessionRepository.deleteByToken(UUID.fromString(token)) == 0) {
+               throw new ResourceNotFoundException("Session", "token", token);
+           }
+           tokenCache.invalidate(token);
        }catch (IllegalArgumentException e){
            return false;
        }
@@ -61,22 +129,91 @@ public class LoginServiceImpl implements LoginService {
 
     @Override
     public String validateToken(String token) {
-        try{
-            return userRepository.findUserBaseEntityBySessionToken(UUID.fromString(token)).orElseThrow(
-                    () -> new InvalidCredentialsException("Invalid Token")
-            ).getUserType();
-        } catch (IllegalArgumentException e){
-            return "";
+        return authenticate(token).map(AuthenticatedPrincipal::getRole).orElse("");
+    }
+
+    @Override
+    public Optional<AuthenticatedPrincipal> authenticate(String token) {
+        if (tokenMode == TokenMode.SIGNED) {
+            if (revokedSignedTokens.getIfPresent(token) != null) {
+                return Optional.empty();
+            }
+            return signedTokenCodec.verify(token)
+                    .filter(principal -> revokedSignedUsers.getIfPresent(principal.getUserId()) == null);
         }
+        return Optional.ofNullable(tokenCache.get(token, this::loadSession))
+                .map(CachedSession::principal);
     }
 
     @Override
-    public UserBaseDTO getUserByToken(UUID token) throws InvalidCredentialsException {
-        UserBaseEntity userBaseEntity =  userRepository.findUserBaseEntityBySessionToken(token).orElseThrow(() -> new InvalidCredentialsException("Invalid Token"));
-        if(userBaseEntity.getUserType().equals("STUDENT")){
-            StudentEntity student = studentRepository.findStudentEntityByEmailIgnoreCase(userBaseEntity.getEmail()).orElseThrow(() -> new ResourceNotFoundException("Student", "email", userBaseEntity.getEmail()));
+    public UserBaseDTO getUserByToken(String token) throws InvalidCredentialsException {
+        AuthenticatedPrincipal principal = authenticate(token).orElseThrow(() -> new InvalidCredentialsException("Invalid Token"));
+        UserBaseEntity userBaseEntity = userRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", principal.getEmail()));
+        if(userBaseEntity instanceof StudentEntity student){
             return StudentMapper.mapStudentEntityToStudentDTO(student, new StudentDTO(), new AddressDTO(), true);
         }
         return UserGenericMapper.mapUserEntityToUserDTO(userBaseEntity, new UserBaseDTO(), new AddressDTO(), true);
     }
+
+    @Override
+    public void revokeUserSessions(Long userId) {
+        revokedSignedUsers.put(userId, Boolean.TRUE);
+        authSessionRepository.deleteByUserId(userId);
+        Runnable evict = () -> tokenCache.asMap().values()
+                .removeIf(session -> userId.equals(session.principal().getUserId()));
+        evict.run();
+        // a request between the eviction and the commit may have cached a token of the user again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public TokenCacheStatsDTO getTokenCacheStats() {
+        CacheStats stats = tokenCache.stats();
+        return new TokenCacheStatsDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(), tokenCache.estimatedSize());
+    }
+
+    private CachedSession loadSession(String token) {
+        UUID sessionToken;
+        try {
+            sessionToken = UUID.fromString(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return authSessionRepository.findActiveByToken(sessionToken, Instant.now())
+                .map(session -> new CachedSession(UserGenericMapper.mapUserEntityToPrincipal(session.getUser()), session.getExpiresAt()))
+                .orElse(null);
+    }
+
+    private record CachedSession(AuthenticatedPrincipal principal, Instant expiresAt) {
+    }
+
+    /**
+     * Keeps an entry for the cache time to live but never past the expiry of its session.
+     */
+    private record CachedSessionExpiry(Duration timeToLive) implements Expiry<String, CachedSession> {
+
+        @Override
+        public long expireAfterCreate(String token, CachedSession session, long currentTime) {
+            Duration untilSessionExpiry = Duration.between(Instant.now(), session.expiresAt());
+            return Math.max(0, Math.min(timeToLive.toNanos(), untilSessionExpiry.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedSession session, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedSession session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,16 +1,52 @@
 package com.example.attendxbackendv2.servicelayer.implementations;
 
+import com.example.attendxbackendv2.datalayer.entities.CourseEntity;
 import com.example.attendxbackendv2.datalayer.entities.LecturerEntity;
 import com.example.attendxbackendv2.datalayer.entities.SessionEntity;
-import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
+import com.example.attendxbackendv2.datalayer.entities.SessionStatus;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.RosterStudent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionBitmaps;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionCourse;
+import com.example.attendxbackendv2.datalayer.repositories.CourseRepository;
 import com.example.attendxbackendv2.datalayer.repositories.LecturerRepository;
+import com.example.attendxbackendv2.datalayer.repositories.ProxyCheckInFlagRepository;
 import com.example.attendxbackendv2.datalayer.repositories.SessionRepository;
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceEventDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceMarkDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceMarkResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceSyncResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.BatchAttendanceResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CheckInCodeDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseAttendanceSummaryDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.ProxyCheckInFlagDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionAttendanceCountDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionCardDTO;
-import com.example.attendxbackendv2.presentationlayer.datatransferobjects.UserBaseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentAttendanceSummaryDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SyncRecordDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.attendance.ArrivalTimes;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceBitmap;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceBitmapStore;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceBitmapStore.CurrentAttendance;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceReportWriter;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceSyncResolver;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInBuffer;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInDeduplicator;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInCodeWindow;
+import com.example.attendxbackendv2.servicelayer.attendance.LiveAttendanceBroadcaster;
+import com.example.attendxbackendv2.servicelayer.attendance.LiveSession;
+import com.example.attendxbackendv2.servicelayer.attendance.LiveSessionRegistry;
+import com.example.attendxbackendv2.servicelayer.attendance.ProxyCheckInDetector;
+import com.example.attendxbackendv2.servicelayer.attendance.SessionLifecycleManager;
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceClassification;
+import com.example.attendxbackendv2.servicelayer.contants.AttendanceMarkStatus;
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCheckInCodeException;
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.NotRelatedException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.exceptions.SessionExpiredException;
-import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.interfaces.SessionService;
 import com.example.attendxbackendv2.servicelayer.mappers.SessionMapper;
 import com.opencsv.CSVWriterBuilder;
@@ -18,46 +54,155 @@ import com.opencsv.ICSVWriter;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 public class SessionServiceImpl implements SessionService {
 
+    private static final String[] REPORT_HEADERS = {"Number", "First Name", "Last Name", "Attended", "Arrival", "Checked In At"};
+
     private final SessionRepository sessionRepository;
     private final LecturerRepository lecturerRepository;
-    private final LoginService loginService;
+    private final CourseRepository courseRepository;
+    private final AttendanceJdbcRepository attendanceJdbcRepository;
+    private final AttendanceBitmapStore attendanceBitmapStore;
+    private final CheckInBuffer checkInBuffer;
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final LiveAttendanceBroadcaster liveAttendanceBroadcaster;
+    private final SessionLifecycleManager sessionLifecycleManager;
+    private final CheckInDeduplicator checkInDeduplicator;
+    private final AttendanceSyncResolver attendanceSyncResolver;
+    private final ProxyCheckInDetector proxyCheckInDetector;
+    private final ProxyCheckInFlagRepository proxyCheckInFlagRepository;
 
     @Autowired
-    public SessionServiceImpl(SessionRepository sessionRepository, LecturerRepository userRepository1, LoginService loginService) {
+    public SessionServiceImpl(SessionRepository sessionRepository, LecturerRepository userRepository1,
+                              CourseRepository courseRepository,
+                              AttendanceJdbcRepository attendanceJdbcRepository, AttendanceBitmapStore attendanceBitmapStore,
+                              CheckInBuffer checkInBuffer, LiveSessionRegistry liveSessionRegistry,
+                              LiveAttendanceBroadcaster liveAttendanceBroadcaster,
+                              SessionLifecycleManager sessionLifecycleManager, CheckInDeduplicator checkInDeduplicator,
+                              AttendanceSyncResolver attendanceSyncResolver, ProxyCheckInDetector proxyCheckInDetector,
+                              ProxyCheckInFlagRepository proxyCheckInFlagRepository) {
         this.sessionRepository = sessionRepository;
         this.lecturerRepository = userRepository1;
-        this.loginService = loginService;
+        this.courseRepository = courseRepository;
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+        this.attendanceBitmapStore = attendanceBitmapStore;
+        this.checkInBuffer = checkInBuffer;
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.liveAttendanceBroadcaster = liveAttendanceBroadcaster;
+        this.sessionLifecycleManager = sessionLifecycleManager;
+        this.checkInDeduplicator = checkInDeduplicator;
+        this.attendanceSyncResolver = attendanceSyncResolver;
+        this.proxyCheckInDetector = proxyCheckInDetector;
+        this.proxyCheckInFlagRepository = proxyCheckInFlagRepository;
     }
 
 
     @Override
-    public boolean attendToSession(Long sessionId, String studentID) {
+    public boolean attendToSession(Long sessionId, String studentID, String requestId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        return deduplicated(sessionId, studentID, requestId, () -> recordCheckIn(sessionId, studentID, requestId));
+    }
+
+    private boolean recordCheckIn(Long sessionId, String studentID, String requestId) {
         boolean isAttended = false;
-        SessionEntity sessionEntity = sessionRepository.findById(sessionId)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Session", "sessionId", sessionId.toString())
-                );
-        StudentEntity studentEntity = sessionEntity.getAttendance().keySet().stream()
-                .filter(student -> student.getStudentId().equalsIgnoreCase(studentID))
-                .findFirst().orElseThrow(() ->
-                        new NotRelatedException("Student", "studentId", studentID, "Session")
-                );
-        sessionEntity.getAttendance().put(studentEntity, true);
-        sessionRepository.save(sessionEntity);
+        Optional<LiveSession> liveSession = liveSessionRegistry.find(sessionId);
+        if (liveSession.isPresent()) {
+            int ordinal = liveSession.get().ordinalOf(studentID)
+                    .orElseThrow(() -> new NotRelatedException("Student", "studentId", studentID, "Session"));
+            // written or buffered before marking so a rejected check-in is never reported present without being persisted
+            if (!liveSession.get().isPresent(ordinal)) {
+                if (checkInBuffer.isEnabled()) {
+                    checkInBuffer.submit(sessionId, studentID, requestId);
+                } else if (sessionRepository.markAttended(sessionId, studentID, requestId, Instant.now()) == 0) {
+                    // the student is on the roster, so the session was closed after it was looked up
+                    throw new SessionExpiredException(sessionId.toString());
+                }
+                if (liveSession.get().markPresent(ordinal)) {
+                    liveAttendanceBroadcaster.recordCheckIn(sessionId, studentID);
+                }
+            }
+            isAttended = true;
+            return isAttended;
+        }
+        if (checkInBuffer.isEnabled() && sessionLifecycleManager.isOpen(sessionId)) {
+            // acknowledged once buffered, no connection is taken on the request thread
+            checkInBuffer.submit(sessionId, studentID, requestId);
+            isAttended = true;
+            return isAttended;
+        }
+        // the lookups only run when no event was appended
+        if (sessionRepository.markAttended(sessionId, studentID, requestId, Instant.now()) == 0) {
+            if (sessionRepository.countAttendee(sessionId, studentID) == 0) {
+                if (!sessionRepository.existsById(sessionId)) {
+                    throw new ResourceNotFoundException("Session", "sessionId", sessionId.toString());
+                }
+                throw new NotRelatedException("Student", "studentId", studentID, "Session");
+            }
+            if (sessionRepository.existsBySessionIdAndStatus(sessionId, SessionStatus.CLOSED)) {
+                throw new SessionExpiredException(sessionId.toString());
+            }
+        }
         isAttended = true;
         return isAttended;
     }
 
+    @Override
+    public BatchAttendanceResultDTO markAttendance(Long sessionId, List<AttendanceMarkDTO> marks,
+                                                   AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        Map<String, Boolean> requested = new LinkedHashMap<>();
+        marks.forEach(mark -> requested.put(mark.getStudentId(), mark.isPresent()));
+
+        Map<String, AttendanceMarkStatus> statuses = attendanceBitmapStore.applyMarks(sessionId, requested, principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Session", "sessionId", sessionId.toString()));
+        liveSessionRegistry.find(sessionId).ifPresent(liveSession -> statuses.forEach((studentId, status) -> {
+            if (status == AttendanceMarkStatus.MARKED) {
+                int ordinal = liveSession.ordinalOf(studentId).orElseThrow();
+                if (requested.get(studentId)) {
+                    if (liveSession.markPresent(ordinal)) {
+                        liveAttendanceBroadcaster.recordCheckIn(sessionId, studentId);
+                    }
+                } else {
+                    liveSession.markAbsent(ordinal);
+                }
+            }
+        }));
+        List<AttendanceMarkResultDTO> results = new ArrayList<>(statuses.size());
+        statuses.forEach((studentId, status) -> results.add(new AttendanceMarkResultDTO(studentId, status)));
+        int markedCount = (int) statuses.values().stream().filter(AttendanceMarkStatus.MARKED::equals).count();
+        return new BatchAttendanceResultDTO(sessionId, markedCount, statuses.size() - markedCount, results);
+    }
+
+    @Override
+    public AttendanceSyncResultDTO syncAttendance(List<SyncRecordDTO> records, AuthenticatedPrincipal principal) {
+        AttendanceSyncResultDTO result = attendanceSyncResolver.resolve(records, principal);
+        result.getChanges().forEach(change -> liveSessionRegistry.find(change.getSessionId()).ifPresent(liveSession -> {
+            int ordinal = liveSession.ordinalOf(change.getStudentId()).orElseThrow();
+            if (change.isPresent()) {
+                if (liveSession.markPresent(ordinal)) {
+                    liveAttendanceBroadcaster.recordCheckIn(change.getSessionId(), change.getStudentId());
+                }
+            } else {
+                liveSession.markAbsent(ordinal);
+            }
+        }));
+        return result;
+    }
+
     @Override
     @Transactional
     public boolean startSession(Long sessionId) {
@@ -68,61 +213,67 @@ public class SessionServiceImpl implements SessionService {
                 );
         var currentDate = LocalDate.now();
         var sessionDate = sessionEntity.getSessionDate();
-        if (currentDate.isAfter(sessionDate)) {
+        if (currentDate.isAfter(sessionDate) || sessionEntity.isClosed()) {
 
             throw new SessionExpiredException(sessionId.toString());
         }
-        sessionEntity.startSession();
+        Roster roster = buildRoster(sessionEntity.getCourse().getCourseId());
+        // locked like a snapshot, so no event below the baseline is still uncommitted
+        attendanceJdbcRepository.lockSessionBitmaps(sessionId);
+        sessionEntity.startSession(roster.bitmap(), Instant.now(), sessionLifecycleManager.getCheckInWindow(),
+                attendanceJdbcRepository.findLastEventId(sessionId));
         sessionRepository.save(sessionEntity);
+        afterCommit(() -> {
+            liveSessionRegistry.open(sessionId, sessionDate, roster.ordinals(), sessionEntity.getAttendanceBitmap());
+            sessionLifecycleManager.scheduleClose(sessionId, sessionEntity.getClosesAt());
+        });
         isStarted = true;
         return isStarted;
     }
 
     @Override
-    public byte[] getAttendanceReport(Long sessionId) {
-        SessionEntity sessionEntity = sessionRepository.findById(sessionId)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Session", "sessionId", sessionId.toString())
-                );
+    public boolean closeSession(Long sessionId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        if (!sessionLifecycleManager.closeSession(sessionId)) {
+            throw new ResourceNotFoundException("Session", "sessionId", sessionId.toString());
+        }
+        return true;
+    }
 
-        byte[] fileContent = null;
-        try {
-            // Writing to CSV file
-            ICSVWriter writer = new CSVWriterBuilder(new FileWriter("yourfile.csv"))
+    @Override
+    public AttendanceReportWriter getAttendanceReport(Long sessionId) {
+        SessionBitmaps stored = attendanceJdbcRepository.findSessionBitmaps(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", "sessionId", sessionId.toString()));
+        return out -> {
+            ICSVWriter writer = new CSVWriterBuilder(new OutputStreamWriter(out, StandardCharsets.UTF_8))
                     .withSeparator(',')
                     .build();
-            String[] headers = "Number#First Name#Last Name#Attended".split("#");
-            writer.writeNext(headers);
-
-            sessionEntity.getAttendance().forEach((student, isAttended) -> {
-                String[] entry = String.format("%s#%s#%s#%s\n", student.getStudentId(), student.getFirstName(), student.getLastName(), isAttended).split("#");
-                writer.writeNext(entry);
+            writer.writeNext(REPORT_HEADERS);
+            CurrentAttendance current = attendanceBitmapStore.currentAttendance(stored);
+            Duration lateAfter = sessionLifecycleManager.getLateAfter();
+            attendanceJdbcRepository.streamSessionAttendees(sessionId, attendee -> {
+                boolean attended = current.attendance().contains(attendee.ordinal());
+                writer.writeNext(new String[]{
+                        attendee.studentId(), attendee.firstName(), attendee.lastName(), Boolean.toString(attended),
+                        current.arrivals().classify(attendee.ordinal(), attended, lateAfter).name(),
+                        current.arrivals().checkedInAt(attendee.ordinal(), stored.openedAt()).map(Instant::toString).orElse("")
+                });
             });
-
-            writer.close();
-            File file = new File("yourfile.csv");
-            FileInputStream fis = new FileInputStream(file);
-            fileContent = new byte[(int) file.length()];
-            fileContent = fis.readAllBytes();
-            fis.close();
-        } catch (Exception e) {
-            return new byte[6];
-        }
-
-        return fileContent;
+            if (writer.checkError()) {
+                throw new IOException("Attendance report of session " + sessionId + " couldn't be written");
+            }
+        };
     }
 
     @Override
     @Transactional
-    public Map<String, List<SessionCardDTO>> getUpcomingSessionByToken(String token) {
+    public Map<String, List<SessionCardDTO>> getUpcomingSessions(AuthenticatedPrincipal principal) {
         Map<String, List<SessionCardDTO>> upcomingSessions = new HashMap<>();
         upcomingSessions.put("todaySessions", new ArrayList<>());
         upcomingSessions.put("nextWeekSessions", new ArrayList<>());
-        String loginRole = loginService.validateToken(token);
-        if (loginRole.equalsIgnoreCase("LECTURER")) {
-            UserBaseDTO userBaseEntity = loginService.getUserByToken(UUID.fromString(token));
-            LecturerEntity lecturer = lecturerRepository.findLecturerEntityByEmailIgnoreCase(userBaseEntity.getEmail())
-                    .orElseThrow(() -> new ResourceNotFoundException("Lecturer", "email", userBaseEntity.getEmail()));
+        if (principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)) {
+            LecturerEntity lecturer = lecturerRepository.findById(principal.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Lecturer", "email", principal.getEmail()));
             List<SessionEntity> allSessions = lecturer.getCourses().stream()
                     .flatMap(course -> course.getCourseSessions().stream())
                     .toList();
@@ -130,9 +281,9 @@ public class SessionServiceImpl implements SessionService {
                         LocalDate today = LocalDate.now();
                         LocalDate nextWeek = today.plusWeeks(1);
                         LocalDate sessionDate = session.getSessionDate();
-                        if(sessionDate.isEqual(today) && session.getAttendance().isEmpty()){
+                        if(sessionDate.isEqual(today) && !session.isClosed()){
                             upcomingSessions.get("todaySessions").add(SessionMapper.mapToSessionCard(session, new SessionCardDTO()));
-                        }else if(sessionDate.isAfter(today) && sessionDate.isBefore(nextWeek) && session.getAttendance().isEmpty()){
+                        }else if(sessionDate.isAfter(today) && sessionDate.isBefore(nextWeek) && !session.isClosed()){
                             upcomingSessions.get("nextWeekSessions").add(SessionMapper.mapToSessionCard(session, new SessionCardDTO()));
                         }
                     });
@@ -140,6 +291,164 @@ public class SessionServiceImpl implements SessionService {
         return upcomingSessions;
     }
 
+    @Override
+    public CheckInCodeDTO getCheckInCode(Long sessionId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        CheckInCodeWindow checkInCodes = findCheckInCodes(sessionId);
+        return new CheckInCodeDTO(sessionId, checkInCodes.currentCode(), checkInCodes.currentCodeRotatesAt().toString());
+    }
 
-}
+    @Override
+    public boolean checkIn(Long sessionId, AuthenticatedPrincipal principal, String code, String requestId,
+                           String source) {
+        if (principal.getStudentId() == null) {
+            throw new NotRelatedException("User", "email", principal.getEmail(), "Session");
+        }
+        String studentId = principal.getStudentId();
+        return deduplicated(sessionId, studentId, requestId, () -> {
+            if (!findCheckInCodes(sessionId).accepts(code)) {
+                throw new InvalidCheckInCodeException(sessionId.toString());
+            }
+            proxyCheckInDetector.inspect(sessionId, source, studentId);
+            return recordCheckIn(sessionId, studentId, requestId);
+        });
+    }
+
+    @Override
+    public List<AttendanceEventDTO> getAttendanceEvents(Long sessionId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        return attendanceJdbcRepository.findSessionEvents(sessionId).stream()
+                .map(event -> new AttendanceEventDTO(event.eventId(), event.studentId(), event.type().name(),
+                        event.recordedBy(), event.recordedAt().toString()))
+                .toList();
+    }
+
+    @Override
+    public List<ProxyCheckInFlagDTO> getProxyCheckInFlags(Long sessionId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        return proxyCheckInFlagRepository.findAllBySessionIdOrderByFlagId(sessionId).stream()
+                .map(flag -> new ProxyCheckInFlagDTO(flag.getStudentId(), flag.getSource(), flag.getStudentsFromSource(),
+                        flag.isRejected(), flag.getFlaggedAt().toString()))
+                .toList();
+    }
+
+    @Override
+    public SseEmitter subscribeToLiveAttendance(Long sessionId, AuthenticatedPrincipal principal) {
+        checkSessionAccess(sessionId, principal);
+        return liveAttendanceBroadcaster.subscribe(sessionId);
+    }
+
+    @Override
+    @Transactional
+    public CourseAttendanceSummaryDTO getCourseAttendanceSummary(String courseCode, AuthenticatedPrincipal principal) {
+        CourseEntity course = courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Course", "courseCode", courseCode));
+        if (principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)
+                && !Objects.equals(course.getLecturer().getUserId(), principal.getUserId())) {
+            throw new InvalidCredentialsException("Invalid Token");
+        }
+        List<RosterStudent> rosterStudents = attendanceJdbcRepository.findRosterStudents(course.getCourseId());
+        int rosterSize = rosterStudents.isEmpty() ? 0 : rosterStudents.get(rosterStudents.size() - 1).ordinal() + 1;
+        int[] expectedSessions = new int[rosterSize];
+        int[] attendedSessions = new int[rosterSize];
+        int[] lateSessions = new int[rosterSize];
+        Duration lateAfter = sessionLifecycleManager.getLateAfter();
+
+        List<SessionAttendanceCountDTO> sessions = new ArrayList<>();
+        for (SessionBitmaps stored : attendanceBitmapStore.findCurrentCourseAttendance(course.getCourseId())) {
+            AttendanceBitmap roster = AttendanceBitmap.of(stored.roster());
+            AttendanceBitmap present = AttendanceBitmap.of(stored.attendance()).and(roster);
+            roster.ordinals().filter(ordinal -> ordinal < rosterSize).forEach(ordinal -> expectedSessions[ordinal]++);
+            present.ordinals().filter(ordinal -> ordinal < rosterSize).forEach(ordinal -> attendedSessions[ordinal]++);
+            ArrivalTimes arrivals = ArrivalTimes.of(stored.arrivals());
+            int[] late = present.ordinals()
+                    .filter(ordinal -> arrivals.classify(ordinal, true, lateAfter) == AttendanceClassification.LATE)
+                    .toArray();
+            Arrays.stream(late).filter(ordinal -> ordinal < rosterSize).forEach(ordinal -> lateSessions[ordinal]++);
+            sessions.add(new SessionAttendanceCountDTO(stored.sessionId(), stored.sessionDate().toString(),
+                    stored.status().name(), roster.count(), present.count(), late.length));
+        }
+
+        List<StudentAttendanceSummaryDTO> students = rosterStudents.stream()
+                .filter(student -> expectedSessions[student.ordinal()] > 0)
+                .map(student -> new StudentAttendanceSummaryDTO(student.studentId(), student.firstName(), student.lastName(),
+                        expectedSessions[student.ordinal()], attendedSessions[student.ordinal()],
+                        lateSessions[student.ordinal()]))
+                .toList();
+        return new CourseAttendanceSummaryDTO(course.getCourseCode(), sessions, students);
+    }
 
+    /**
+     * Runs the check-in once per request id of the student in the session, check-ins without one always run.
+     */
+    private boolean deduplicated(Long sessionId, String studentId, String requestId, Supplier<Boolean> checkIn) {
+        if (requestId == null) {
+            return checkIn.get();
+        }
+        return checkInDeduplicator.deduplicate(sessionId + ":" + studentId + ":" + requestId, checkIn);
+    }
+
+    private CheckInCodeWindow findCheckInCodes(Long sessionId) {
+        return liveSessionRegistry.findCheckInCodes(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Open session", "sessionId", sessionId.toString()));
+    }
+
+    /**
+     * Lets a lecturer only at the sessions of their own courses, editors at any session
+     */
+    private void checkSessionAccess(Long sessionId, AuthenticatedPrincipal principal) {
+        SessionCourse course = attendanceJdbcRepository.findSessionCourse(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", "sessionId", sessionId.toString()));
+        if (principal.hasRole(UserConfigConstants.LECTURER_ROLE_VALUE)
+                && !Objects.equals(course.lecturerId(), principal.getUserId())) {
+            throw new InvalidCredentialsException("Invalid Token");
+        }
+    }
+
+    /**
+     * Gives every enrolled student without one the next free ordinal of the course, then reads the roster
+     * back by ordinal. Both run in chunks of set based SQL, neither loads the course's students as entities.
+     * @return the currently enrolled students with their ordinals
+     */
+    private Roster buildRoster(Long courseId) {
+        while (attendanceBitmapStore.assignRosterOrdinals(courseId) > 0) {
+            // every chunk commits on its own
+        }
+        AttendanceBitmap bitmap = new AttendanceBitmap();
+        Map<String, Integer> studentOrdinals = new HashMap<>();
+        int[] lastOrdinal = {-1};
+        int read;
+        do {
+            read = attendanceJdbcRepository.findEnrolledOrdinals(courseId, lastOrdinal[0], (studentId, ordinal) -> {
+                bitmap.set(ordinal);
+                studentOrdinals.put(studentId, ordinal);
+                lastOrdinal[0] = ordinal;
+            });
+        } while (read > 0);
+        return new Roster(studentOrdinals, bitmap.toByteArray(AttendanceBitmap.byteLength(lastOrdinal[0] + 1)));
+    }
+
+    /**
+     * Runs the action once the surrounding transaction committed, or right away without one,
+     * so in-memory state never gets ahead of a rolled back transaction.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * @param ordinals student number -> roster ordinal of the enrolled students
+     * @param bitmap persisted roster bitmap
+     */
+    private record Roster(Map<String, Integer> ordinals, byte[] bitmap) {
+    }
+}
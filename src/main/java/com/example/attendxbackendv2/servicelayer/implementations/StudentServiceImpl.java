@@ -7,6 +7,7 @@ import com.example.attendxbackendv2.presentationlayer.datatransferobjects.Addres
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
 import com.example.attendxbackendv2.servicelayer.exceptions.StudentAlreadyExistException;
+import com.example.attendxbackendv2.servicelayer.interfaces.LoginService;
 import com.example.attendxbackendv2.servicelayer.interfaces.StudentService;
 import com.example.attendxbackendv2.servicelayer.mappers.StudentMapper;
 import jakarta.transaction.Transactional;
@@ -25,9 +26,11 @@ public class StudentServiceImpl implements StudentService {
     private int pageSize;
 
     private final StudentRepository studentRepository;
+    private final LoginService loginService;
 
-    public StudentServiceImpl(StudentRepository studentRepository) {
+    public StudentServiceImpl(StudentRepository studentRepository, LoginService loginService) {
         this.studentRepository = studentRepository;
+        this.loginService = loginService;
     }
 
     @Override
@@ -80,6 +83,7 @@ public class StudentServiceImpl implements StudentService {
         StudentEntity student = studentRepository.findStudentEntityByEmailIgnoreCase(email).orElseThrow(
                 () -> new ResourceNotFoundException("Student", "email", email)
         );
+        loginService.revokeUserSessions(student.getUserId());
         studentRepository.delete(student);
         return true;
     }
@@ -1,11 +1,23 @@
 package com.example.attendxbackendv2.servicelayer.interfaces;
 
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentImportResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.EnrollmentTicketDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.GenericListResponseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
 import com.example.attendxbackendv2.servicelayer.exceptions.CourseAlreadyExistsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
 import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
+import com.example.attendxbackendv2.servicelayer.exceptions.StudentAlreadyEnrolledException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface CourseService {
 
@@ -22,10 +34,10 @@ public interface CourseService {
      * It uses pagination and sorting by Course code.
      * @param pageNo page number of the result. See application.properties for the page size
      * @param ascending sorting order
-     * @param token the token for the security
+     * @param principal the authenticated user of the request
      * @return the list of the CourseDTO requested
      */
-    List<CourseDTO> getAllCourses(int pageNo, boolean ascending, String token);
+    List<CourseDTO> getAllCourses(int pageNo, boolean ascending, AuthenticatedPrincipal principal);
 
     /**
      * Fetch course details by course code .
@@ -33,30 +45,95 @@ public interface CourseService {
      * @param getDetails the fetch details. If true, fetches the course details. If false, fetches only the course code,
      *                  course name and department name of the course.Fewer data increases resilience for the application
      *                   when presenting the data
+     * @param principal the authenticated user of the request
      * @return the requested CourseDTO if found
      * @throws ResourceNotFoundException if no such course found with the specified code
      */
-    CourseDTO getCourseByCourseCode(String courseCode, boolean getDetails, String token) throws ResourceNotFoundException, InvalidCredentialsException;
+    CourseDTO getCourseByCourseCode(String courseCode, boolean getDetails, AuthenticatedPrincipal principal) throws ResourceNotFoundException, InvalidCredentialsException;
+
+    /**
+     * Fetch one page of the enrolled students of the course, sorted by student number.
+     * Unlike the course details it never loads the whole roster, so it stays cheap for very large courses.
+     * @param courseCode the course code of the requested course
+     * @param pageNo page number of the result. See application.properties for the page size
+     * @param principal the authenticated user of the request
+     * @return the students of the page and the page count
+     * @throws ResourceNotFoundException if no such course found with the specified code
+     * @throws InvalidCredentialsException if a lecturer requests a course of another lecturer
+     */
+    GenericListResponseDTO<StudentDTO> getEnrolledStudents(String courseCode, int pageNo, AuthenticatedPrincipal principal)
+            throws ResourceNotFoundException, InvalidCredentialsException;
+
+    /**
+     * Fetch one page of the sessions of the course up to today, sorted by date.
+     * @param courseCode the course code of the requested course
+     * @param pageNo page number of the result. See application.properties for the page size
+     * @param principal the authenticated user of the request
+     * @return the sessions of the page and the page count
+     * @throws ResourceNotFoundException if no such course found with the specified code
+     * @throws InvalidCredentialsException if a lecturer requests a course of another lecturer
+     */
+    GenericListResponseDTO<SessionDTO> getCourseSessions(String courseCode, int pageNo, AuthenticatedPrincipal principal)
+            throws ResourceNotFoundException, InvalidCredentialsException;
 
     /**
      * Updates the existing Course by fetching it from the database and applying recent changes.
      *
      * @param courseDTO The DTO containing the Course's code as an identifier and updated fields.
-     * @param token the authorization & authentication token to validate the user
+     * @param principal the authenticated user of the request
      * @return True if the update was successful.
      * @throws ResourceNotFoundException May be thrown if attempting to access a non-existing student
      *                                   or trying to change the department of the student to a non-existing department.
      */
-    boolean updateCourse(CourseDTO courseDTO, String token);
+    boolean updateCourse(CourseDTO courseDTO, AuthenticatedPrincipal principal);
 
     /**
-     * Enrolls a student to a course.
+     * Enrolls a student to a course, or puts the student on the waitlist of a full course.
      * @param courseCode the course code of the course to be enrolled
      * @param studentID the student ID of the student to be enrolled
-     * @return true if the course is deleted successfully
+     * @return ENROLLED if the student got a seat, WAITLISTED if the course is full
      * @throws ResourceNotFoundException if no such course found with the specified code
+     * @throws StudentAlreadyEnrolledException if the student is already enrolled in the course
+     */
+    EnrollmentStatus enrollStudent(String courseCode, String studentID) throws ResourceNotFoundException;
+
+    /**
+     * Queues the enrollment of a student when the admission queue is enabled, see attendx.enrollment.admission-mode.
+     * The course and the student are checked when the request is processed, the ticket reports the outcome.
+     * @param courseCode the course code of the course to be enrolled
+     * @param studentId the student ID of the student to be enrolled
+     * @param principal the authenticated user of the request, the only one that can read the ticket
+     * @return the id of the ticket of the request, empty if the queue is disabled and enrollStudent should be called
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.EnrollmentQueueFullException if the queue is full
+     */
+    Optional<String> queueEnrollment(String courseCode, String studentId, AuthenticatedPrincipal principal);
+
+    /**
+     * @param ticketId the ticket handed out by queueEnrollment
+     * @param principal the authenticated user of the request
+     * @return the request and its outcome, QUEUED until it is processed
+     * @throws ResourceNotFoundException if the user has no such ticket or its outcome is older than the ticket TTL
+     */
+    EnrollmentTicketDTO getEnrollmentTicket(String ticketId, AuthenticatedPrincipal principal);
+
+    /**
+     * Subscribes to the outcome of a queued enrollment request. The current state is sent right away
+     * and the outcome once the request is processed, then the stream completes.
+     * @param ticketId the ticket handed out by queueEnrollment
+     * @param principal the authenticated user of the request
+     * @return the emitter of the server-sent events
+     * @throws ResourceNotFoundException if the user has no such ticket or its outcome is older than the ticket TTL
+     */
+    SseEmitter subscribeToEnrollmentTicket(String ticketId, AuthenticatedPrincipal principal);
+
+    /**
+     * Enrolls students from a roster CSV with a course code and a student number per row, see EnrollmentImporter.
+     * The roster is streamed, it is never held in memory as a whole.
+     * @param roster UTF-8 encoded CSV, may list several courses
+     * @return the counts of the import and the rows that couldn't be applied
+     * @throws IOException if the roster can't be read
      */
-    boolean enrollStudent(String courseCode, String studentID) throws ResourceNotFoundException;
+    EnrollmentImportResultDTO importEnrollments(InputStream roster) throws IOException;
 
     /**
      * This method is used to get the total number of pages in the database
@@ -1,13 +1,46 @@
 package com.example.attendxbackendv2.servicelayer.interfaces;
 
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.TokenCacheStatsDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.UserBaseDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
 import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
 
-import java.util.UUID;
+import java.util.Optional;
 
 public interface LoginService {
-    UUID login(String email, String password) throws InvalidCredentialsException;
+
+    /**
+     * Checks the credentials and issues an access token.
+     * Depending on attendx.auth.token-mode the token is either a UUID stored with the user or a signed stateless token.
+     * @param email email of the user
+     * @param password password of the user
+     * @return the access token
+     * @throws InvalidCredentialsException if the credentials don't match
+     */
+    String login(String email, String password) throws InvalidCredentialsException;
     boolean logout(String token);
     String validateToken(String token);
-    UserBaseDTO getUserByToken(UUID token) throws InvalidCredentialsException;
+
+    /**
+     * Resolves the token into the principal of its user.
+     * Valid tokens are served from a bounded in-process cache, only misses go to the database.
+     * @param token the access token sent in the Authorization header
+     * @return the principal, or empty if the token is malformed or unknown
+     */
+    Optional<AuthenticatedPrincipal> authenticate(String token);
+    UserBaseDTO getUserByToken(String token) throws InvalidCredentialsException;
+
+    /**
+     * Logs the user out on every device, call before the user is deleted.
+     * The user's sessions are deleted and the user's cached tokens are evicted once the surrounding transaction
+     * commits, signed tokens of the user are rejected by this node until they expire.
+     * @param userId id of the user
+     */
+    void revokeUserSessions(Long userId);
+
+    /**
+     * Returns hit, miss and eviction counts of the token cache so it can be sized.
+     * @return the current token cache statistics
+     */
+    TokenCacheStatsDTO getTokenCacheStats();
 }
@@ -1,6 +1,17 @@
 package com.example.attendxbackendv2.servicelayer.interfaces;
 
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceEventDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceMarkDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AttendanceSyncResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.BatchAttendanceResultDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CheckInCodeDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseAttendanceSummaryDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.ProxyCheckInFlagDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SessionCardDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.SyncRecordDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceReportWriter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -9,33 +20,159 @@ public interface SessionService {
 
     /**
      * Allows a student to attend a session identified by its session ID.
+     * In buffered check-in mode the check-in is only accepted here and written by the next flush.
+     * A retry with the same request ID returns the result of the first check-in without writing again.
      *
      * @param sessionId The ID of the session the student is attending.
      * @param studentID The ID of the student attending the session.
+     * @param requestId The idempotency key the client sent, may be null.
+     * @param principal The lecturer or editor marking the student.
      * @return true if the student successfully attends the session, false otherwise.
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.CheckInBufferFullException if buffered and the buffer is full
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.SessionExpiredException if the session is closed
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
      */
-    boolean attendToSession(Long sessionId, String studentID);
+    boolean attendToSession(Long sessionId, String studentID, String requestId, AuthenticatedPrincipal principal);
+
+    /**
+     * Writes the attendance of many students of a session as one batch of corrections and revokes in its event log.
+     * Students that aren't on the session's roster are reported instead of failing the batch.
+     *
+     * @param sessionId The ID of the session.
+     * @param marks The attendance of the students, the last mark of a repeated student wins.
+     * @param principal The lecturer or editor the changes are recorded for.
+     * @return the outcome of every distinct student in the request
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
+     */
+    BatchAttendanceResultDTO markAttendance(Long sessionId, List<AttendanceMarkDTO> marks, AuthenticatedPrincipal principal);
+
+    /**
+     * Applies the attendance records a classroom device took offline, for one or more sessions.
+     * The latest record of a student wins, a lecturer's override wins over any check-in, and only the
+     * winners that change the stored attendance are written. Sending the same records again changes nothing.
+     *
+     * @param records The records in any order.
+     * @param principal The lecturer or editor uploading the records, the overrides are recorded for them.
+     * @return the students whose attendance changed and the records that were rejected
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer uploads records
+     *         of a session of another lecturer's course
+     */
+    AttendanceSyncResultDTO syncAttendance(List<SyncRecordDTO> records, AuthenticatedPrincipal principal);
+
+    /**
+     * Returns the attendance history of a session: every check-in, correction and revoke in the order they happened.
+     *
+     * @param sessionId The ID of the session.
+     * @param principal The authenticated user of the request.
+     * @return the events of the session, oldest first
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
+     */
+    List<AttendanceEventDTO> getAttendanceEvents(Long sessionId, AuthenticatedPrincipal principal);
 
     /**
      * Initiates a session with the specified session ID.
+     * The currently enrolled students become the session's roster, students new to the course get a roster ordinal.
+     * The session is open for check-in until its check-in window ends, then it is closed automatically.
      *
      * @param sessionId The ID of the session to be started.
      * @return true if the session is successfully started, false otherwise.
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.SessionExpiredException if the session's date has passed or the session is closed
      */
     boolean startSession(Long sessionId);
 
     /**
-     * Prepares the attandance report and returns the attendance report as a byte array.
+     * Closes the session before its check-in window ends and finalizes its attendance.
+     * Lecturers can still correct the attendance of a closed session, students can't check in anymore.
+     *
+     * @param sessionId The ID of the session to be closed.
+     * @param principal The authenticated user of the request.
+     * @return true if the session is closed
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
+     */
+    boolean closeSession(Long sessionId, AuthenticatedPrincipal principal);
+
+    /**
+     * Prepares the CSV attendance report of a session. Nothing is read until the report is written,
+     * the rows are then streamed from the database without buffering the roster. Every student's attendance is
+     * classified present, late or absent against the session's opening and the late grace period.
      * @param sessionId requested sessions ID
-     * @return byte array of the attendance report
+     * @return writer of the attendance report
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     */
+    AttendanceReportWriter getAttendanceReport(Long sessionId);
+
+    /**
+     * This method lists the upcoming sessions for the authenticated lecturer.
+     *
+     * @param principal The authenticated user of the request.
+     * @return A list of upcoming sessions for the lecturer.
+     */
+    Map<String, List<SessionCardDTO>> getUpcomingSessions(AuthenticatedPrincipal principal);
+
+    /**
+     * Returns the current rotating check-in code of an open session for the lecturer to show.
+     *
+     * @param sessionId The ID of the open session.
+     * @param principal The authenticated user of the request.
+     * @return the current code and when it rotates
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session isn't open
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
+     */
+    CheckInCodeDTO getCheckInCode(Long sessionId, AuthenticatedPrincipal principal);
+
+    /**
+     * Checks the authenticated student in to an open session with the code shown by the lecturer.
+     *
+     * @param sessionId The ID of the open session.
+     * @param principal The authenticated student.
+     * @param code The check-in code the student entered.
+     * @param requestId The idempotency key the client sent, may be null. A retry with the same key
+     *                  returns the result of the first check-in, even after the code rotated.
+     * @param source The client address of the request, check-ins of many students from one source are flagged.
+     * @return true if the student successfully attends the session
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCheckInCodeException if the code isn't valid anymore
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session isn't open
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ProxyCheckInRejectedException if the source checked in
+     *         too many students and proxy detection rejects them
+     */
+    boolean checkIn(Long sessionId, AuthenticatedPrincipal principal, String code, String requestId, String source);
+
+    /**
+     * Returns the check-ins of a session that came from a source many students of the session checked in from.
+     * Flags are written shortly after the check-in, so the list of an open session can lag behind.
+     *
+     * @param sessionId The ID of the session.
+     * @param principal The authenticated user of the request.
+     * @return the flagged check-ins in the order they were flagged
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
+     */
+    List<ProxyCheckInFlagDTO> getProxyCheckInFlags(Long sessionId, AuthenticatedPrincipal principal);
+
+    /**
+     * Subscribes to the live attendance of an open session. Events carry the present and roster counts
+     * and the students that checked in since the previous event, a few events per second at most.
+     *
+     * @param sessionId The ID of the open session.
+     * @param principal The authenticated user of the request.
+     * @return the emitter of the server-sent events
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the session doesn't exist or isn't open
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the session's course
      */
-    byte[] getAttendanceReport(Long sessionId);
+    SseEmitter subscribeToLiveAttendance(Long sessionId, AuthenticatedPrincipal principal);
 
     /**
-     * This method lists the upcoming sessions for a student identified by their token.
+     * Summarizes the attendance of a course over its started sessions using the session bitmaps.
      *
-     * @param token The token of the student.
-     * @return A list of upcoming sessions for the student.
+     * @param courseCode The code of the course.
+     * @param principal The authenticated user of the request.
+     * @return present, late and expected counts per session and attended, late and expected sessions per student
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException if the course doesn't exist
+     * @throws com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException if a lecturer isn't the lecturer of the course
      */
-    Map<String, List<SessionCardDTO>> getUpcomingSessionByToken(String token);
+    CourseAttendanceSummaryDTO getCourseAttendanceSummary(String courseCode, AuthenticatedPrincipal principal);
 }
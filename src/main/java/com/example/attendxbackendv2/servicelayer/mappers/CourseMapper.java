@@ -22,6 +22,12 @@ public class CourseMapper {
         courseEntity.setDescription(courseDTO.getDescription());
         courseEntity.setStartDate(LocalDate.parse(courseDTO.getStartDate(), formatter));
         courseEntity.setEndDate(LocalDate.parse(courseDTO.getEndDate(), formatter));
+        // a course sent without capacity keeps its limit, removing the limit takes the explicit flag
+        if (courseDTO.isRemoveCapacity()) {
+            courseEntity.setCapacity(null);
+        } else if (courseDTO.getCapacity() != null) {
+            courseEntity.setCapacity(courseDTO.getCapacity());
+        }
 
         return courseEntity;
     }
@@ -34,6 +40,7 @@ public class CourseMapper {
         if (getDetails) {
             courseDTO.setStartDate(courseEntity.getStartDate().toString());
             courseDTO.setEndDate(courseEntity.getEndDate().toString());
+            courseDTO.setCapacity(courseEntity.getCapacity());
             courseDTO.setLecturerEmail(courseEntity.getLecturer().getEmail());
             courseDTO.setEnrolledStudents(courseEntity.getEnrolledStudents().stream().map(studentEntity -> StudentMapper.mapStudentEntityToStudentDTO(studentEntity,
                     new StudentDTO(),
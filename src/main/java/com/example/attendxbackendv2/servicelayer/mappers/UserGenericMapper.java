@@ -1,9 +1,11 @@
 package com.example.attendxbackendv2.servicelayer.mappers;
 
 import com.example.attendxbackendv2.datalayer.entities.AddressEmbeddable;
+import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
 import com.example.attendxbackendv2.datalayer.entities.UserBaseEntity;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.AddressDTO;
 import com.example.attendxbackendv2.presentationlayer.datatransferobjects.UserBaseDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
 
 public class UserGenericMapper {
 
@@ -32,5 +34,13 @@ public class UserGenericMapper {
         return userBaseDTO;
     }
 
+    public static AuthenticatedPrincipal mapUserEntityToPrincipal(UserBaseEntity userBaseEntity) {
+        String studentId = userBaseEntity instanceof StudentEntity student ? student.getStudentId() : null;
+        return new AuthenticatedPrincipal(
+                userBaseEntity.getUserId(),
+                userBaseEntity.getUserType(),
+                userBaseEntity.getEmail(),
+                studentId);
+    }
 
 }
@@ -0,0 +1,92 @@
+package com.example.attendxbackendv2.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The expected decisions of the routes that predate the table are the ones the former SecurityAspect pointcuts
+ * made for each controller method, apart from the rules that were tightened since, which are marked.
+ */
+class RouteAuthorizationTableTest {
+
+    private final RouteAuthorizationTable table = SecurityConfig.buildRouteAuthorizationTable();
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            // method, pattern,                      editor, lecturer, student, anonymous
+            // LecturerController.*  -> editor only
+            "POST,   /api/v1/lecturer,                true,   false,    false,   false",
+            "GET,    /api/v1/lecturer,                true,   false,    false,   false",
+            "PUT,    /api/v1/lecturer,                true,   false,    false,   false",
+            "GET,    /api/v1/lecturer/{email},        true,   false,    false,   false",
+            "DELETE, /api/v1/lecturer/{email},        true,   false,    false,   false",
+            // EditorController.* -> editor only
+            "POST,   /api/v1/editor,                  true,   false,    false,   false",
+            "GET,    /api/v1/editor,                  true,   false,    false,   false",
+            "PUT,    /api/v1/editor,                  true,   false,    false,   false",
+            "GET,    /api/v1/editor/{email},          true,   false,    false,   false",
+            "DELETE, /api/v1/editor/{email},          true,   false,    false,   false",
+            // DepartmentController create/update -> editor only, reads are public
+            "POST,   /api/v1/department,              true,   false,    false,   false",
+            "PUT,    /api/v1/department,              true,   false,    false,   false",
+            "GET,    /api/v1/department,              true,   true,     true,    true",
+            "GET,    /api/v1/department/{departmentName}, true, true,   true,    true",
+            // StudentController.createStudent -> editor, the rest -> editor or lecturer
+            "POST,   /api/v1/student,                 true,   false,    false,   false",
+            "GET,    /api/v1/student,                 true,   true,     false,   false",
+            "PUT,    /api/v1/student,                 true,   true,     false,   false",
+            "GET,    /api/v1/student/{email},         true,   true,     false,   false",
+            "DELETE, /api/v1/student/{email},         true,   true,     false,   false",
+            // CourseController
+            "POST,   /api/v1/course,                  true,   false,    false,   false",
+            "PUT,    /api/v1/course,                  true,   true,     false,   false",
+            "GET,    /api/v1/course,                  true,   true,     true,    false",
+            "GET,    /api/v1/course/{courseCode},     true,   true,     true,    false",
+            "PATCH,  /api/v1/course,                  false,  false,    true,    false",
+            // LoginController
+            "POST,   /api/v1/login,                   true,   true,     true,    true",
+            "GET,    /api/v1/login,                   true,   true,     true,    true",
+            "DELETE, /api/v1/login,                   true,   true,     true,    true",
+            // OptionController and SessionController weren't advised
+            "GET,    /api/v1/option,                  true,   true,     true,    true",
+            "PUT,    /api/v1/session,                 true,   true,     true,    true",
+            "GET,    /api/v1/session,                 true,   true,     true,    true",
+            "GET,    /api/v1/session/{sessionId},     true,   true,     true,    true",
+            // SessionController.attendToSession was open to anyone, it now takes the session's lecturer or an editor
+            "PATCH,  /api/v1/session,                 true,   true,     false,   false",
+            // routes added after the pointcuts were replaced
+            "GET,    /api/v1/course/enrollment-tickets/{ticketId},        false, false, true, false",
+            "GET,    /api/v1/course/enrollment-tickets/{ticketId}/events, false, false, true, false",
+            "POST,   /api/v1/course/enrollments,      true,   false,    false,   false",
+            "GET,    /api/v1/login/cache-stats,       true,   false,    false,   false",
+            "POST,   /api/v1/session/{sessionId}/attendance, true, true, false,   false",
+            "GET,    /api/v1/session/{sessionId}/attendance/events, true, true, false, false",
+            "GET,    /api/v1/course/{courseCode}/attendance,  true, true, false,   false",
+            "GET,    /api/v1/course/{courseCode}/students,    true, true, false,   false",
+            "GET,    /api/v1/course/{courseCode}/sessions,    true, true, false,   false",
+            "GET,    /api/v1/session/{sessionId}/live,        true, true, false,   false",
+            "POST,   /api/v1/session/{sessionId}/close,       true, true, false,   false",
+            "POST,   /api/v1/session/attendance/sync,         true, true, false,   false",
+            "GET,    /api/v1/session/{sessionId}/proxy-flags, true, true, false,   false",
+            "GET,    /api/v1/session/{sessionId}/check-in-code, true, true, false,  false",
+            "POST,   /api/v1/session/{sessionId}/check-in,  false, false,  true,    false",
+    })
+    void allowsTheSameRequestsAsThePointcuts(String method, String pattern,
+                                             boolean editor, boolean lecturer, boolean student, boolean anonymous) {
+        assertEquals(editor, table.isAllowed(method, pattern, "EDITOR"), "EDITOR");
+        assertEquals(lecturer, table.isAllowed(method, pattern, "LECTURER"), "LECTURER");
+        assertEquals(student, table.isAllowed(method, pattern, "STUDENT"), "STUDENT");
+        assertEquals(anonymous, table.isAllowed(method, pattern, null), "anonymous");
+    }
+
+    @Test
+    void roleComparisonIsCaseInsensitive() {
+        assertTrue(table.isAllowed("POST", "/api/v1/course", "editor"));
+        assertFalse(table.isAllowed("POST", "/api/v1/course", "unknown"));
+    }
+}
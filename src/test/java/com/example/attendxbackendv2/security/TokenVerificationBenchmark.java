@@ -0,0 +1,79 @@
+package com.example.attendxbackendv2.security;
+
+import com.example.attendxbackendv2.datalayer.entities.AuthSessionEntity;
+import com.example.attendxbackendv2.datalayer.entities.LecturerEntity;
+import com.example.attendxbackendv2.datalayer.repositories.AuthSessionRepository;
+import com.example.attendxbackendv2.datalayer.repositories.UserRepository;
+import com.example.attendxbackendv2.servicelayer.implementations.LoginServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Compares the verification cost of the two token modes. Run with {@code ./gradlew benchmark}.
+ * The UUID cache miss path uses a stubbed repository, so it shows the service overhead only;
+ * the MySQL round trip that a real miss pays comes on top of it.
+ */
+@Tag("benchmark")
+class TokenVerificationBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    @Test
+    void compareVerifyCost() {
+        LecturerEntity lecturer = new LecturerEntity();
+        lecturer.setUserId(42L);
+        lecturer.setUserType("LECTURER");
+        lecturer.setEmail("john@doe.com");
+
+        UUID uuidToken = UUID.randomUUID();
+        Instant now = Instant.now();
+        AuthSessionEntity session = new AuthSessionEntity(uuidToken, lecturer, now, now.plus(Duration.ofHours(1)));
+
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        AuthSessionRepository authSessionRepository = mock(AuthSessionRepository.class, withSettings().stubOnly());
+        when(authSessionRepository.findActiveByToken(any(), any())).thenReturn(Optional.of(session));
+
+        SignedTokenCodec codec = new SignedTokenCodec("benchmark-secret", Duration.ofHours(1), Clock.systemUTC());
+        LoginServiceImpl signedMode = new LoginServiceImpl(userRepository, authSessionRepository, codec, TokenMode.SIGNED, 3600, 10_000, 300);
+        LoginServiceImpl uuidModeCached = new LoginServiceImpl(userRepository, authSessionRepository, codec, TokenMode.UUID, 3600, 10_000, 300);
+        LoginServiceImpl uuidModeUncached = new LoginServiceImpl(userRepository, authSessionRepository, codec, TokenMode.UUID, 3600, 0, 300);
+
+        String signedToken = codec.issue(new AuthenticatedPrincipal(42L, "LECTURER", "john@doe.com", null));
+
+        report("SIGNED verify", measure(signedMode::authenticate, signedToken));
+        report("UUID verify, cache hit", measure(uuidModeCached::authenticate, uuidToken.toString()));
+        report("UUID verify, cache miss (excluding DB)", measure(uuidModeUncached::authenticate, uuidToken.toString()));
+    }
+
+    private static double measure(Function<String, Optional<AuthenticatedPrincipal>> verifier, String token) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += verifier.apply(token).map(AuthenticatedPrincipal::getUserId).orElse(0L);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += verifier.apply(token).map(AuthenticatedPrincipal::getUserId).orElse(0L);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+
+    private static void report(String name, double nanosPerOperation) {
+        System.out.printf("%-42s %10.1f ns/op %12.0f ops/s%n", name, nanosPerOperation, 1_000_000_000d / nanosPerOperation);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.datalayer.repositories.SessionRepository;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.exceptions.CheckInBufferFullException;
+import com.example.attendxbackendv2.servicelayer.implementations.SessionServiceFixture;
+import com.example.attendxbackendv2.servicelayer.implementations.SessionServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Compares the check-in throughput of the direct and the buffered mode. Run with {@code ./gradlew benchmark}.
+ * The database is replaced by a stub that serializes every call and holds it for a fixed commit cost
+ * ({@code -Dbenchmark.commit-micros}, 200 by default), which models the redo log flush each transaction pays.
+ * A direct check-in is one transaction, an INSERT ... SELECT that also reads the session and roster rows.
+ * A buffered flush is one transaction per session that locks the session row, looks up the roster ordinals
+ * and inserts the events as one batch. Only the commit is charged, so the numbers show how much of that cost
+ * batching amortizes, not the capacity of a real server.
+ */
+@Tag("benchmark")
+class CheckInThroughputBenchmark {
+
+    private static final int CHECK_INS = 20_000;
+    private static final int REQUEST_THREADS = 32;
+    private static final int SESSIONS = 8;
+    private static final AuthenticatedPrincipal EDITOR =
+            new AuthenticatedPrincipal(1L, UserConfigConstants.EDITOR_ROLE_VALUE, "editor@attendx.com", null);
+    private static final long COMMIT_NANOS = Long.getLong("benchmark.commit-micros", 200) * 1_000;
+
+    private final Object commitLog = new Object();
+    private final AtomicLong commits = new AtomicLong();
+
+    @Test
+    void compareCheckInThroughput() throws Exception {
+        SessionRepository sessionRepository = mock(SessionRepository.class, withSettings().stubOnly());
+        when(sessionRepository.markAttended(any(), anyString(), any(), any())).thenAnswer(invocation -> {
+            commit();
+            return 1;
+        });
+        AttendanceBitmapStore attendanceBitmapStore = mock(AttendanceBitmapStore.class, withSettings().stubOnly());
+        when(attendanceBitmapStore.markAttended(any(), anyMap())).thenAnswer(invocation -> {
+            commit();
+            return invocation.<Map<?, ?>>getArgument(1).size();
+        });
+
+        CheckInBuffer direct = new CheckInBuffer(attendanceBitmapStore, CheckInMode.DIRECT, 20_000, 500, 50);
+        SessionServiceImpl directService = newSessionService(sessionRepository, attendanceBitmapStore, direct);
+        commits.set(0);
+        long directNanos = run(directService, null);
+        report("DIRECT", directNanos, commits.get(), 0);
+
+        CheckInBuffer buffered = new CheckInBuffer(attendanceBitmapStore, CheckInMode.BUFFERED, 20_000, 500, 50);
+        buffered.start();
+        SessionServiceImpl bufferedService = newSessionService(sessionRepository, attendanceBitmapStore, buffered);
+        commits.set(0);
+        AtomicLong rejected = new AtomicLong();
+        long bufferedNanos = run(bufferedService, rejected);
+        long flushStart = System.nanoTime();
+        buffered.stop();
+        long untilFlushed = bufferedNanos + System.nanoTime() - flushStart;
+        assertEquals(CHECK_INS, buffered.getFlushedCount());
+        report("BUFFERED, until acknowledged", bufferedNanos, commits.get(), rejected.get());
+        report("BUFFERED, until written", untilFlushed, commits.get(), rejected.get());
+    }
+
+    private static SessionServiceImpl newSessionService(SessionRepository sessionRepository,
+                                                        AttendanceBitmapStore attendanceBitmapStore, CheckInBuffer checkInBuffer) {
+        return new SessionServiceFixture()
+                .sessionRepository(sessionRepository)
+                .attendanceBitmapStore(attendanceBitmapStore)
+                .checkInBuffer(checkInBuffer)
+                .openSessions(SESSIONS)
+                .build();
+    }
+
+    private long run(SessionServiceImpl service, AtomicLong rejected) throws Exception {
+        ExecutorService requests = Executors.newFixedThreadPool(REQUEST_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < REQUEST_THREADS; thread++) {
+            int first = thread;
+            futures.add(requests.submit(() -> {
+                for (int i = first; i < CHECK_INS; i += REQUEST_THREADS) {
+                    checkIn(service, (long) (i % SESSIONS), "S" + i, rejected);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        requests.shutdown();
+        return elapsed;
+    }
+
+    private static void checkIn(SessionServiceImpl service, Long sessionId, String studentId, AtomicLong rejected) {
+        while (true) {
+            try {
+                service.attendToSession(sessionId, studentId, null, EDITOR);
+                return;
+            } catch (CheckInBufferFullException e) {
+                // a client would honour Retry-After, here we only count the back-pressure and spin
+                rejected.incrementAndGet();
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void commit() {
+        synchronized (commitLog) {
+            commits.incrementAndGet();
+            long end = System.nanoTime() + COMMIT_NANOS;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static void report(String name, long nanos, long commits, long rejected) {
+        System.out.printf("%-30s %10.0f check-ins/s %8d commits %8d rejected%n",
+                name, CHECK_INS * 1_000_000_000d / nanos, commits, rejected);
+    }
+}
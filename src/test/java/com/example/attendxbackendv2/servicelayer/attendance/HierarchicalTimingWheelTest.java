@@ -0,0 +1,126 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.servicelayer.attendance.HierarchicalTimingWheel.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a small wheel with a fake clock: 1 second ticks and 8 slots, so level 0 covers 8 seconds,
+ * level 1 64 seconds and level 2 512 seconds.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 1_000;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void deadlinesFireOnTheFirstTickAtOrAfterThem() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule("between ticks", 2_500);
+        wheel.schedule("on a tick", 3_000);
+
+        assertTrue(wheel.advance(2_000).isEmpty());
+        assertTrue(wheel.advance(2_999).isEmpty());
+        assertEquals(List.of("between ticks", "on a tick"), wheel.advance(3_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesOnEveryLevelFireOnTime() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Map<String, Long> deadlines = new LinkedHashMap<>();
+        deadlines.put("level 0", 5_000L);
+        deadlines.put("level 0, last slot", 7_000L);
+        deadlines.put("level 1", 20_500L);
+        deadlines.put("level 1, last slot", 63_000L);
+        deadlines.put("level 2", 100_000L);
+        deadlines.put("level 2, far", 400_250L);
+        deadlines.forEach((task, deadlineMs) -> wheel.schedule(task, deadlineMs));
+
+        Map<String, Long> fired = advanceTickByTick(wheel, 0, 410_000);
+
+        assertEquals(deadlines.keySet(), fired.keySet());
+        deadlines.forEach((task, deadlineMs) -> assertEquals(roundUpToTick(deadlineMs), fired.get(task), task));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void oneLargeAdvanceCascadesEveryLevelInDeadlineOrder() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule("d", 200_000);
+        wheel.schedule("c", 65_000);
+        wheel.schedule("b", 9_000);
+        wheel.schedule("a", 7_000);
+
+        assertEquals(List.of("a", "b", "c", "d"), wheel.advance(200_000));
+        assertTrue(wheel.advance(1_000_000).isEmpty());
+    }
+
+    @Test
+    void entriesScheduledAfterARolloverLandOnTheRightLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule("first rotation", 70_000);
+        assertTrue(wheel.advance(66_000).isEmpty());
+
+        // the wheel has moved past the first level 1 rotation, both deadlines are relative to it
+        wheel.schedule("same slot again", 74_000);
+        wheel.schedule("next rotation", 140_000);
+        Map<String, Long> fired = advanceTickByTick(wheel, 66_000, 150_000);
+
+        assertEquals(Map.of("first rotation", 70_000L, "same slot again", 74_000L, "next rotation", 140_000L), fired);
+    }
+
+    @Test
+    void cancelledEntriesNeverFireAndRescheduledOnesFireOnce() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Timeout<String> closing = wheel.schedule("session", 10_000);
+        Timeout<String> farAway = wheel.schedule("far away", 300_000);
+        closing.cancel();
+        farAway.cancel();
+        // rescheduling is cancel and schedule, as the SessionLifecycleManager does
+        wheel.schedule("session", 15_000);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.advance(10_000).isEmpty());
+        assertEquals(2, wheel.size());
+        assertEquals(List.of("session"), wheel.advance(15_000));
+        assertTrue(wheel.advance(400_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesThatAlreadyPassedFireWithTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 1_500);
+        assertTrue(wheel.advance(10_000).isEmpty());
+        wheel.schedule("long past", -50_000);
+        wheel.schedule("just past", 9_999);
+        wheel.schedule("now", 10_000);
+
+        assertTrue(wheel.advance(10_999).isEmpty());
+        assertEquals(List.of("long past", "just past", "now"), wheel.advance(11_000));
+    }
+
+    /**
+     * @return task -> time of the tick that fired it
+     */
+    private static Map<String, Long> advanceTickByTick(HierarchicalTimingWheel<String> wheel, long fromMs, long toMs) {
+        Map<String, Long> fired = new LinkedHashMap<>();
+        for (long nowMs = fromMs + TICK_MS; nowMs <= toMs; nowMs += TICK_MS) {
+            for (String task : wheel.advance(nowMs)) {
+                assertNull(fired.put(task, nowMs), task + " fired twice");
+            }
+        }
+        return fired;
+    }
+
+    private static long roundUpToTick(long timeMs) {
+        return timeMs + Math.floorMod(-timeMs, TICK_MS);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.attendxbackendv2.servicelayer.attendance;
+
+import com.example.attendxbackendv2.datalayer.entities.AttendanceEventType;
+import com.example.attendxbackendv2.datalayer.entities.SessionStatus;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.LoggedEvent;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionBitmaps;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Closes a session whose roster is S0, S1 and S2 while the live registry still holds attendance the log has moved past.
+ */
+class SessionLifecycleManagerTest {
+
+    private static final long SESSION_ID = 7L;
+    private static final LocalDate SESSION_DATE = LocalDate.of(2026, 10, 12);
+    private static final Instant OPENED_AT = Instant.parse("2026-10-12T09:00:00Z");
+    private static final Map<String, Integer> ROSTER = Map.of("S0", 0, "S1", 1, "S2", 2);
+
+    @Test
+    void aRevokeThatCommittedBeforeTheCloseStaysRevoked() {
+        AttendanceBitmap roster = bitmap(0, 1, 2);
+        // S0 checked in before the last snapshot
+        SessionBitmaps stored = new SessionBitmaps(SESSION_ID, SESSION_DATE, roster.toByteArray(1),
+                bitmap(0).toByteArray(1), null, OPENED_AT, SessionStatus.OPEN, 5);
+        AttendanceJdbcRepository repository = mock(AttendanceJdbcRepository.class);
+        when(repository.lockSessionBitmaps(SESSION_ID)).thenReturn(Optional.of(stored));
+        // S1 checked in, then the lecturer revoked S0, the revoke's markAbsent hasn't reached the registry yet
+        when(repository.findSessionEventsAfter(SESSION_ID, 5)).thenReturn(List.of(
+                new LoggedEvent(6, SESSION_ID, 1, AttendanceEventType.CHECK_IN, OPENED_AT.plusSeconds(30)),
+                new LoggedEvent(7, SESSION_ID, 0, AttendanceEventType.REVOKE, OPENED_AT.plusSeconds(60))));
+
+        LiveSessionRegistry registry = new LiveSessionRegistry(new CheckInCodeGenerator(10, 1), true);
+        LiveSession live = registry.open(SESSION_ID, SESSION_DATE, ROSTER, stored.attendance());
+        live.markPresent(1);
+        SessionLifecycleManager manager = new SessionLifecycleManager(repository, new AttendanceBitmapStore(repository),
+                registry, 15, 10, 1000);
+        manager.scheduleClose(SESSION_ID, OPENED_AT.plusSeconds(900));
+
+        assertTrue(live.isPresent(0));
+        assertTrue(manager.closeSession(SESSION_ID));
+
+        ArgumentCaptor<byte[]> attendance = ArgumentCaptor.forClass(byte[].class);
+        verify(repository).closeSession(eq(SESSION_ID), attendance.capture(), any(), eq(7L), any());
+        assertEquals(List.of(1), AttendanceBitmap.of(attendance.getValue()).ordinals().boxed().toList());
+        assertTrue(registry.find(SESSION_ID).isEmpty());
+        assertEquals(0, manager.getOpenCount());
+    }
+
+    private static AttendanceBitmap bitmap(int... ordinals) {
+        AttendanceBitmap bitmap = new AttendanceBitmap();
+        for (int ordinal : ordinals) {
+            bitmap.set(ordinal);
+        }
+        return bitmap;
+    }
+}
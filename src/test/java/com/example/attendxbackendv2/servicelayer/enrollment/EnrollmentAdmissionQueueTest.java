@@ -0,0 +1,84 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentTicketStatus;
+import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Queues the requests of a course and of an unknown course and checks they are enrolled in batches,
+ * never two batches of a course at once.
+ */
+class EnrollmentAdmissionQueueTest {
+
+    private static final int REQUESTS = 300;
+    private static final int BATCH_SIZE = 50;
+
+    @Test
+    void requestsAreEnrolledInBatchesOneCourseAtATime() throws Exception {
+        EnrollmentJdbcRepository enrollmentJdbcRepository = mock(EnrollmentJdbcRepository.class);
+        SeatAllocator seatAllocator = mock(SeatAllocator.class);
+        when(enrollmentJdbcRepository.findCourseIds(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).contains("CSE101") ? Map.of("CSE101", 3L) : Map.of());
+        when(enrollmentJdbcRepository.findStudentUserIds(anyCollection())).thenAnswer(invocation -> {
+            Map<String, Long> userIds = new HashMap<>();
+            invocation.<Collection<String>>getArgument(0).forEach(studentId -> userIds.put(studentId, Long.parseLong(studentId)));
+            return userIds;
+        });
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        List<Integer> batchSizes = new ArrayList<>();
+        when(seatAllocator.enrollAll(anyLong(), any())).thenAnswer(invocation -> {
+            if (running.incrementAndGet() > 1) {
+                overlapping.incrementAndGet();
+            }
+            Map<Long, EnrollmentStatus> outcomes = new HashMap<>();
+            invocation.<Collection<Long>>getArgument(1).forEach(userId -> outcomes.put(userId, EnrollmentStatus.ENROLLED));
+            synchronized (batchSizes) {
+                batchSizes.add(outcomes.size());
+            }
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return outcomes;
+        });
+        EnrollmentAdmissionQueue queue = new EnrollmentAdmissionQueue(enrollmentJdbcRepository, seatAllocator,
+                EnrollmentAdmissionMode.QUEUED, REQUESTS * 2, 4, BATCH_SIZE, 600, 60000);
+
+        List<String> ticketIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ticketIds.add(queue.submit("cse101", Integer.toString(i), (long) i));
+        }
+        String unknownCourse = queue.submit("XYZ999", "1", 1L);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (queue.getQueuedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        queue.stop();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(EnrollmentTicketStatus.ENROLLED, queue.getTicket(ticketIds.get(i), (long) i).getStatus());
+        }
+        assertEquals(EnrollmentTicketStatus.COURSE_NOT_FOUND, queue.getTicket(unknownCourse, 1L).getStatus());
+        assertThrows(ResourceNotFoundException.class, () -> queue.getTicket(unknownCourse, 2L));
+        assertEquals(0, overlapping.get());
+        assertEquals(REQUESTS, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= BATCH_SIZE));
+    }
+}
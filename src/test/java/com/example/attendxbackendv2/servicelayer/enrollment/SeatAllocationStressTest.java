@@ -0,0 +1,195 @@
+package com.example.attendxbackendv2.servicelayer.enrollment;
+
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.datalayer.entities.AddressEmbeddable;
+import com.example.attendxbackendv2.datalayer.entities.CourseEntity;
+import com.example.attendxbackendv2.datalayer.entities.DepartmentEntity;
+import com.example.attendxbackendv2.datalayer.entities.LecturerEntity;
+import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
+import com.example.attendxbackendv2.datalayer.repositories.CourseRepository;
+import com.example.attendxbackendv2.datalayer.repositories.DepartmentRepository;
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.LecturerRepository;
+import com.example.attendxbackendv2.datalayer.repositories.StudentRepository;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.contants.EnrollmentStatus;
+import com.example.attendxbackendv2.servicelayer.interfaces.CourseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enrolls many more students than a course has seats from many threads at once against the database,
+ * then frees seats and checks the waitlist is promoted in order.
+ */
+@SpringBootTest
+class SeatAllocationStressTest {
+
+    private static final int CAPACITY = 50;
+    private static final int STUDENTS = 200;
+    private static final int REQUEST_THREADS = 32;
+    private static final int UNENROLLED = 10;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private static final AuthenticatedPrincipal EDITOR =
+            new AuthenticatedPrincipal(0L, UserConfigConstants.EDITOR_ROLE_VALUE, "editor@attendx.com", null);
+
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private DepartmentRepository departmentRepository;
+    @Autowired
+    private LecturerRepository lecturerRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private EnrollmentJdbcRepository enrollmentJdbcRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private DepartmentEntity department;
+    private LecturerEntity lecturer;
+    private CourseEntity course;
+    private final List<StudentEntity> students = new ArrayList<>();
+
+    @BeforeEach
+    void createCourse() {
+        String run = Long.toString(System.nanoTime(), 36);
+        AddressEmbeddable address = new AddressEmbeddable("1 Test Street", "Floor 1", "Izmir", "Izmir", "Turkey", "35000");
+        department = departmentRepository.save(new DepartmentEntity("Seat Allocation " + run, "Department of the seat allocation stress test"));
+        lecturer = lecturerRepository.save(new LecturerEntity("Seat", "Allocator", "lecturer-" + run + "@attendx.com",
+                "5550000000", "password", address, department));
+        String courseCode;
+        do {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            courseCode = "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                    + (char) ('A' + random.nextInt(26)) + (100 + random.nextInt(900));
+        } while (courseRepository.findCourseEntityByCourseCodeIgnoreCase(courseCode).isPresent());
+        CourseEntity newCourse = new CourseEntity(courseCode, "Seat Allocation Stress", "Course of the seat allocation stress test",
+                LocalDate.now(), LocalDate.now().plusMonths(4), department, lecturer);
+        newCourse.setCapacity(CAPACITY);
+        course = courseRepository.save(newCourse);
+        for (int i = 0; i < STUDENTS; i++) {
+            StudentEntity student = new StudentEntity("Student", "Number" + i, "student-" + run + "-" + i + "@attendx.com",
+                    "5550000000", "password", address);
+            student.setStudentId("ST" + run + "-" + i);
+            students.add(student);
+        }
+        students.replaceAll(studentRepository::save);
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        MapSqlParameterSource params = new MapSqlParameterSource("courseId", course.getCourseId());
+        jdbcTemplate.update("DELETE FROM course_waitlist WHERE course_id = :courseId", params);
+        jdbcTemplate.update("DELETE FROM course_entity_enrolled_students WHERE course_entity_course_id = :courseId", params);
+        courseRepository.deleteById(course.getCourseId());
+        studentRepository.deleteAll(students);
+        lecturerRepository.delete(lecturer);
+        departmentRepository.delete(department);
+    }
+
+    @Test
+    void concurrentEnrollmentsNeverOversellAndTheWaitlistIsPromotedInOrder() throws Exception {
+        ExecutorService requests = Executors.newFixedThreadPool(REQUEST_THREADS);
+        List<Future<EnrollmentStatus>> futures = new ArrayList<>();
+        for (StudentEntity student : students) {
+            futures.add(requests.submit(() -> courseService.enrollStudent(course.getCourseCode(), student.getStudentId())));
+        }
+        Map<EnrollmentStatus, Integer> outcomes = new HashMap<>();
+        for (Future<EnrollmentStatus> future : futures) {
+            outcomes.merge(future.get(), 1, Integer::sum);
+        }
+        requests.shutdown();
+
+        assertEquals(CAPACITY, outcomes.get(EnrollmentStatus.ENROLLED));
+        assertEquals(STUDENTS - CAPACITY, outcomes.get(EnrollmentStatus.WAITLISTED));
+        assertEquals(CAPACITY, enrollmentJdbcRepository.findEnrolledUserIds(course.getCourseId()).size());
+        assertEquals(CAPACITY, seatsTaken());
+        assertEquals(STUDENTS - CAPACITY, waitlist().size());
+
+        // unenrolling frees seats for the head of the waitlist
+        List<Long> enrolled = enrollmentJdbcRepository.findEnrolledUserIds(course.getCourseId());
+        List<Long> head = waitlist().subList(0, UNENROLLED);
+        courseService.updateCourse(courseDTO(enrolled.subList(UNENROLLED, enrolled.size()), CAPACITY), EDITOR);
+
+        Set<Long> enrolledAfter = new HashSet<>(enrollmentJdbcRepository.findEnrolledUserIds(course.getCourseId()));
+        assertEquals(CAPACITY, enrolledAfter.size());
+        assertTrue(enrolledAfter.containsAll(head));
+        assertEquals(CAPACITY, seatsTaken());
+        assertEquals(STUDENTS - CAPACITY - UNENROLLED, waitlist().size());
+    }
+
+    @Test
+    void anUpdateWithoutCapacityKeepsTheLimitAndTheWaitlist() {
+        for (StudentEntity student : students.subList(0, CAPACITY + UNENROLLED)) {
+            courseService.enrollStudent(course.getCourseCode(), student.getStudentId());
+        }
+        List<Long> enrolled = enrollmentJdbcRepository.findEnrolledUserIds(course.getCourseId());
+
+        courseService.updateCourse(courseDTO(enrolled, null), EDITOR);
+
+        assertEquals(CAPACITY, courseRepository.findById(course.getCourseId()).orElseThrow().getCapacity());
+        assertEquals(CAPACITY, enrollmentJdbcRepository.findEnrolledUserIds(course.getCourseId()).size());
+        assertEquals(CAPACITY, seatsTaken());
+        assertEquals(UNENROLLED, waitlist().size());
+    }
+
+    private int seatsTaken() {
+        Integer seatsTaken = jdbcTemplate.queryForObject("SELECT seats_taken FROM course_entity WHERE course_id = :courseId",
+                new MapSqlParameterSource("courseId", course.getCourseId()), Integer.class);
+        return seatsTaken == null ? 0 : seatsTaken;
+    }
+
+    private List<Long> waitlist() {
+        return jdbcTemplate.queryForList("SELECT student_user_id FROM course_waitlist WHERE course_id = :courseId ORDER BY waitlist_id",
+                new MapSqlParameterSource("courseId", course.getCourseId()), Long.class);
+    }
+
+    /**
+     * @param capacity null to leave the capacity out of the update
+     */
+    private CourseDTO courseDTO(List<Long> enrolledUserIds, Integer capacity) {
+        Map<Long, String> studentIds = new HashMap<>();
+        students.forEach(student -> studentIds.put(student.getUserId(), student.getStudentId()));
+        CourseDTO courseDTO = new CourseDTO();
+        courseDTO.setCourseCode(course.getCourseCode());
+        courseDTO.setCourseName(course.getCourseName());
+        courseDTO.setDescription(course.getDescription());
+        courseDTO.setStartDate(course.getStartDate().format(DATE_FORMAT));
+        courseDTO.setEndDate(course.getEndDate().format(DATE_FORMAT));
+        courseDTO.setDepartmentName(department.getDepartmentName());
+        courseDTO.setLecturerEmail(lecturer.getEmail());
+        courseDTO.setCapacity(capacity);
+        courseDTO.setEnrolledStudents(enrolledUserIds.stream().map(userId -> {
+            StudentDTO student = new StudentDTO();
+            student.setStudentNumber(studentIds.get(userId));
+            return student;
+        }).toList());
+        return courseDTO;
+    }
+}
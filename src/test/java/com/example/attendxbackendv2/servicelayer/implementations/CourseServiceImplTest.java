@@ -0,0 +1,135 @@
+package com.example.attendxbackendv2.servicelayer.implementations;
+
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.datalayer.entities.CourseEntity;
+import com.example.attendxbackendv2.datalayer.entities.DepartmentEntity;
+import com.example.attendxbackendv2.datalayer.entities.LecturerEntity;
+import com.example.attendxbackendv2.datalayer.entities.StudentEntity;
+import com.example.attendxbackendv2.datalayer.repositories.CourseRepository;
+import com.example.attendxbackendv2.datalayer.repositories.DepartmentRepository;
+import com.example.attendxbackendv2.datalayer.repositories.EnrollmentJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.LecturerRepository;
+import com.example.attendxbackendv2.datalayer.repositories.SessionRepository;
+import com.example.attendxbackendv2.datalayer.repositories.StudentRepository;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.CourseDTO;
+import com.example.attendxbackendv2.presentationlayer.datatransferobjects.StudentDTO;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.enrollment.EnrollmentAdmissionQueue;
+import com.example.attendxbackendv2.servicelayer.enrollment.EnrollmentImporter;
+import com.example.attendxbackendv2.servicelayer.enrollment.SeatAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the statements updateCourse sends, every repository and JDBC call standing for one round trip.
+ */
+class CourseServiceImplTest {
+
+    private static final AuthenticatedPrincipal EDITOR =
+            new AuthenticatedPrincipal(1L, UserConfigConstants.EDITOR_ROLE_VALUE, "editor@attendx.com", null);
+
+    @Test
+    void updateCourseSendsTheSameStatementsForAnyNumberOfStudents() {
+        assertEquals(countUpdateStatements(10), countUpdateStatements(400));
+    }
+
+    @Test
+    void updateCourseResolvesStudentsWritesTheDiffAndPromotesInEightStatements() {
+        // enrolled ids, student lookup, the delete, the batched insert, the batched waitlist delete,
+        // the seat recount, the free seats and the empty waitlist
+        assertEquals(8, countJdbcAndStudentStatements(400));
+    }
+
+    /**
+     * Replaces the enrollments of a course of the given size with a list that keeps half of them.
+     */
+    private static int countUpdateStatements(int students) {
+        return update(students).stream().mapToInt(repository -> mockingDetails(repository).getInvocations().size()).sum();
+    }
+
+    private static int countJdbcAndStudentStatements(int students) {
+        List<Object> repositories = update(students);
+        return mockingDetails(repositories.get(0)).getInvocations().size()
+                + mockingDetails(repositories.get(1)).getInvocations().size();
+    }
+
+    /**
+     * @return the mocks the update ran against, the JDBC template and the student repository first
+     */
+    private static List<Object> update(int students) {
+        DepartmentEntity department = new DepartmentEntity();
+        department.setDepartmentId(1L);
+        department.setDepartmentName("Computer Engineering");
+        LecturerEntity lecturer = new LecturerEntity();
+        lecturer.setUserId(2L);
+        lecturer.setEmail("lecturer@attendx.com");
+        CourseEntity course = new CourseEntity("CSE101", "Introduction to Programming", "Programming fundamentals in Java",
+                LocalDate.of(2026, 9, 1), LocalDate.of(2027, 1, 15), department, lecturer);
+        course.setCourseId(3L);
+
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        DepartmentRepository departmentRepository = mock(DepartmentRepository.class);
+        LecturerRepository lecturerRepository = mock(LecturerRepository.class);
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        EnrollmentJdbcRepository enrollmentJdbcRepository = new EnrollmentJdbcRepository(jdbcTemplate);
+
+        // students 0 .. n - 1 are enrolled, the update keeps n / 2 .. n - 1 and adds n .. 3n / 2 - 1
+        List<Long> enrolled = LongStream.range(0, students).boxed().toList();
+        when(jdbcTemplate.queryForList(startsWith("SELECT enrolled_students_user_id"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(enrolled);
+        when(studentRepository.findAllByStudentIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<StudentEntity> found = new ArrayList<>();
+            for (Object studentNumber : invocation.<Collection<?>>getArgument(0)) {
+                StudentEntity student = new StudentEntity();
+                student.setStudentId((String) studentNumber);
+                student.setUserId(Long.parseLong((String) studentNumber));
+                found.add(student);
+            }
+            return found;
+        });
+        when(courseRepository.findCourseEntityByCourseCodeIgnoreCase("CSE101")).thenReturn(Optional.of(course));
+        when(departmentRepository.findByDepartmentNameIgnoreCase("Computer Engineering")).thenReturn(Optional.of(department));
+        when(lecturerRepository.findLecturerEntityByEmailIgnoreCase("lecturer@attendx.com")).thenReturn(Optional.of(lecturer));
+
+        CourseDTO courseDTO = new CourseDTO();
+        courseDTO.setCourseCode("CSE101");
+        courseDTO.setCourseName("Introduction to Programming");
+        courseDTO.setDescription("Programming fundamentals in Java");
+        courseDTO.setStartDate("01-09-2026");
+        courseDTO.setEndDate("15-01-2027");
+        courseDTO.setDepartmentName("Computer Engineering");
+        courseDTO.setLecturerEmail("lecturer@attendx.com");
+        courseDTO.setEnrolledStudents(LongStream.range(students / 2, students + students / 2).mapToObj(userId -> {
+            StudentDTO student = new StudentDTO();
+            student.setStudentNumber(Long.toString(userId));
+            return student;
+        }).toList());
+
+        new CourseServiceImpl(lecturerRepository, departmentRepository, courseRepository, studentRepository, sessionRepository,
+                enrollmentJdbcRepository, mock(EnrollmentImporter.class), new SeatAllocator(enrollmentJdbcRepository),
+                mock(EnrollmentAdmissionQueue.class))
+                .updateCourse(courseDTO, EDITOR);
+        return Stream.<Object>of(jdbcTemplate, studentRepository, courseRepository, departmentRepository,
+                lecturerRepository, sessionRepository).toList();
+    }
+}
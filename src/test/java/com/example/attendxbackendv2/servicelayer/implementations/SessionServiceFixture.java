@@ -0,0 +1,112 @@
+package com.example.attendxbackendv2.servicelayer.implementations;
+
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionCourse;
+import com.example.attendxbackendv2.datalayer.repositories.CourseRepository;
+import com.example.attendxbackendv2.datalayer.repositories.LecturerRepository;
+import com.example.attendxbackendv2.datalayer.repositories.ProxyCheckInFlagRepository;
+import com.example.attendxbackendv2.datalayer.repositories.SessionRepository;
+
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceBitmapStore;
+import com.example.attendxbackendv2.servicelayer.attendance.AttendanceSyncResolver;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInBuffer;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInCodeGenerator;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInDeduplicator;
+import com.example.attendxbackendv2.servicelayer.attendance.CheckInMode;
+import com.example.attendxbackendv2.servicelayer.attendance.LiveAttendanceBroadcaster;
+import com.example.attendxbackendv2.servicelayer.attendance.LiveSessionRegistry;
+import com.example.attendxbackendv2.servicelayer.attendance.ProxyCheckInDetector;
+import com.example.attendxbackendv2.servicelayer.attendance.ProxyDetectionMode;
+import com.example.attendxbackendv2.servicelayer.attendance.SessionLifecycleManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Builds a SessionServiceImpl around the collaborators a test cares about. Everything else is a stub-only mock
+ * or a real component with its optional features off: no live registry, no proxy detection, no live events.
+ * A new dependency of the service only needs a default here.
+ */
+public final class SessionServiceFixture {
+
+    private SessionRepository sessionRepository = stub(SessionRepository.class);
+    /**
+     * null for a stub that knows the open sessions, each of a course without a lecturer
+     */
+    private AttendanceJdbcRepository attendanceJdbcRepository;
+    private AttendanceBitmapStore attendanceBitmapStore = stub(AttendanceBitmapStore.class);
+    private ProxyCheckInFlagRepository proxyCheckInFlagRepository = stub(ProxyCheckInFlagRepository.class);
+    private CheckInBuffer checkInBuffer;
+    private long openSessions;
+
+    public SessionServiceFixture sessionRepository(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+        return this;
+    }
+
+    public SessionServiceFixture attendanceJdbcRepository(AttendanceJdbcRepository attendanceJdbcRepository) {
+        this.attendanceJdbcRepository = attendanceJdbcRepository;
+        return this;
+    }
+
+    public SessionServiceFixture proxyCheckInFlagRepository(ProxyCheckInFlagRepository proxyCheckInFlagRepository) {
+        this.proxyCheckInFlagRepository = proxyCheckInFlagRepository;
+        return this;
+    }
+
+    public SessionServiceFixture attendanceBitmapStore(AttendanceBitmapStore attendanceBitmapStore) {
+        this.attendanceBitmapStore = attendanceBitmapStore;
+        return this;
+    }
+
+    /**
+     * Defaults to a buffer in DIRECT mode, which is never started
+     */
+    public SessionServiceFixture checkInBuffer(CheckInBuffer checkInBuffer) {
+        this.checkInBuffer = checkInBuffer;
+        return this;
+    }
+
+    /**
+     * Schedules the close of the sessions 0 to count - 1, so they count as open without being in the live registry.
+     * The default AttendanceJdbcRepository finds their courses, only editors pass the ownership check then.
+     */
+    public SessionServiceFixture openSessions(long count) {
+        this.openSessions = count;
+        return this;
+    }
+
+    public SessionServiceImpl build() {
+        AttendanceJdbcRepository attendanceJdbcRepository = this.attendanceJdbcRepository;
+        if (attendanceJdbcRepository == null) {
+            attendanceJdbcRepository = stub(AttendanceJdbcRepository.class);
+            for (long sessionId = 0; sessionId < openSessions; sessionId++) {
+                when(attendanceJdbcRepository.findSessionCourse(sessionId))
+                        .thenReturn(Optional.of(new SessionCourse(sessionId, null)));
+            }
+        }
+        LiveSessionRegistry liveSessionRegistry = new LiveSessionRegistry(new CheckInCodeGenerator(10, 1), false);
+        SessionLifecycleManager sessionLifecycleManager = new SessionLifecycleManager(attendanceJdbcRepository,
+                attendanceBitmapStore, liveSessionRegistry, 15, 10, 1000);
+        for (long sessionId = 0; sessionId < openSessions; sessionId++) {
+            sessionLifecycleManager.scheduleClose(sessionId, Instant.now().plus(sessionLifecycleManager.getCheckInWindow()));
+        }
+        CheckInBuffer buffer = checkInBuffer != null
+                ? checkInBuffer
+                : new CheckInBuffer(attendanceBitmapStore, CheckInMode.DIRECT, 1, 1, 50);
+        return new SessionServiceImpl(sessionRepository, stub(LecturerRepository.class), stub(CourseRepository.class),
+                attendanceJdbcRepository, attendanceBitmapStore, buffer, liveSessionRegistry,
+                new LiveAttendanceBroadcaster(liveSessionRegistry, 0), sessionLifecycleManager,
+                new CheckInDeduplicator(600, 100_000), new AttendanceSyncResolver(attendanceJdbcRepository),
+                new ProxyCheckInDetector(proxyCheckInFlagRepository, ProxyDetectionMode.OFF, 60, 3, 100_000),
+                proxyCheckInFlagRepository);
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
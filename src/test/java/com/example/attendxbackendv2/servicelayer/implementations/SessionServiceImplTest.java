@@ -0,0 +1,113 @@
+package com.example.attendxbackendv2.servicelayer.implementations;
+
+import com.example.attendxbackendv2.config.UserConfigConstants;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository;
+import com.example.attendxbackendv2.datalayer.repositories.AttendanceJdbcRepository.SessionCourse;
+import com.example.attendxbackendv2.datalayer.repositories.ProxyCheckInFlagRepository;
+import com.example.attendxbackendv2.datalayer.repositories.SessionRepository;
+import com.example.attendxbackendv2.security.AuthenticatedPrincipal;
+import com.example.attendxbackendv2.servicelayer.exceptions.InvalidCredentialsException;
+import com.example.attendxbackendv2.servicelayer.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that a lecturer only reaches the attendance of their own courses' sessions, editors reach every session.
+ */
+class SessionServiceImplTest {
+
+    private static final long SESSION_ID = 7L;
+    private static final long UNKNOWN_SESSION_ID = 8L;
+
+    private static final AuthenticatedPrincipal LECTURER =
+            new AuthenticatedPrincipal(10L, UserConfigConstants.LECTURER_ROLE_VALUE, "lecturer@attendx.com", null);
+    private static final AuthenticatedPrincipal OTHER_LECTURER =
+            new AuthenticatedPrincipal(11L, UserConfigConstants.LECTURER_ROLE_VALUE, "other@attendx.com", null);
+    private static final AuthenticatedPrincipal EDITOR =
+            new AuthenticatedPrincipal(1L, UserConfigConstants.EDITOR_ROLE_VALUE, "editor@attendx.com", null);
+
+    @Test
+    void proxyFlagsAreOnlyReadForTheSessionsLecturerAndEditors() {
+        ProxyCheckInFlagRepository proxyCheckInFlagRepository = mock(ProxyCheckInFlagRepository.class);
+        SessionServiceImpl sessionService = fixture().proxyCheckInFlagRepository(proxyCheckInFlagRepository).build();
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> sessionService.getProxyCheckInFlags(SESSION_ID, OTHER_LECTURER));
+        assertThrows(ResourceNotFoundException.class,
+                () -> sessionService.getProxyCheckInFlags(UNKNOWN_SESSION_ID, EDITOR));
+        verifyNoInteractions(proxyCheckInFlagRepository);
+
+        assertEquals(List.of(), sessionService.getProxyCheckInFlags(SESSION_ID, LECTURER));
+        assertEquals(List.of(), sessionService.getProxyCheckInFlags(SESSION_ID, EDITOR));
+    }
+
+    @Test
+    void theEventLogIsOnlyReadForTheSessionsLecturerAndEditors() {
+        AttendanceJdbcRepository attendanceJdbcRepository = sessionOfLecturer();
+        SessionServiceImpl sessionService = new SessionServiceFixture().attendanceJdbcRepository(attendanceJdbcRepository).build();
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> sessionService.getAttendanceEvents(SESSION_ID, OTHER_LECTURER));
+        verify(attendanceJdbcRepository, never()).findSessionEvents(anyLong());
+
+        assertEquals(List.of(), sessionService.getAttendanceEvents(SESSION_ID, LECTURER));
+        assertEquals(List.of(), sessionService.getAttendanceEvents(SESSION_ID, EDITOR));
+    }
+
+    @Test
+    void theLiveAttendanceOfAnotherLecturersSessionCantBeWatched() {
+        // the fixture keeps no session live, so a subscriber that gets past the check finds the session not open
+        SessionServiceImpl sessionService = fixture().build();
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> sessionService.subscribeToLiveAttendance(SESSION_ID, OTHER_LECTURER));
+        ResourceNotFoundException unknown = assertThrows(ResourceNotFoundException.class,
+                () -> sessionService.subscribeToLiveAttendance(UNKNOWN_SESSION_ID, EDITOR));
+        ResourceNotFoundException notOpen = assertThrows(ResourceNotFoundException.class,
+                () -> sessionService.subscribeToLiveAttendance(SESSION_ID, LECTURER));
+        assertTrue(unknown.getMessage().startsWith("Session"));
+        assertTrue(notOpen.getMessage().startsWith("Open session"));
+    }
+
+    @Test
+    void onlyTheSessionsLecturerAndEditorsMarkAStudentPresent() {
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.markAttended(any(), any(), any(), any())).thenReturn(1);
+        SessionServiceImpl sessionService = fixture().sessionRepository(sessionRepository).build();
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> sessionService.attendToSession(SESSION_ID, "S1", null, OTHER_LECTURER));
+        verifyNoInteractions(sessionRepository);
+
+        assertTrue(sessionService.attendToSession(SESSION_ID, "S1", null, LECTURER));
+        assertTrue(sessionService.attendToSession(SESSION_ID, "S2", null, EDITOR));
+    }
+
+    /**
+     * @return a service that only knows the session SESSION_ID, of a course of LECTURER
+     */
+    private static SessionServiceFixture fixture() {
+        return new SessionServiceFixture().attendanceJdbcRepository(sessionOfLecturer());
+    }
+
+    private static AttendanceJdbcRepository sessionOfLecturer() {
+        AttendanceJdbcRepository attendanceJdbcRepository = mock(AttendanceJdbcRepository.class);
+        when(attendanceJdbcRepository.findSessionCourse(SESSION_ID))
+                .thenReturn(Optional.of(new SessionCourse(3L, LECTURER.getUserId())));
+        when(attendanceJdbcRepository.findSessionCourse(UNKNOWN_SESSION_ID)).thenReturn(Optional.empty());
+        return attendanceJdbcRepository;
+    }
+}